@@ -0,0 +1,163 @@
+package com.example.inclassassignment.bench;
+
+import com.example.inclassassignment.cache.CartSnapshotCache;
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.config.IndexManager;
+import com.example.inclassassignment.dto.AddToCartRequest;
+import com.example.inclassassignment.dto.BulkAddToCartRequest;
+import com.example.inclassassignment.dto.BulkResult;
+import com.example.inclassassignment.dto.CartLineRequest;
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.metrics.ServiceMetrics;
+import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.repository.CartRepository;
+import com.example.inclassassignment.repository.ProductRepository;
+import com.example.inclassassignment.service.CartService;
+import com.example.inclassassignment.service.ProductService;
+import com.example.inclassassignment.writebehind.CartCleanupQueue;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Items per second for catalog imports and "add all to cart": one call per item vs the bulk APIs.
+// Needs a running MongoDB (-Dbench.mongo.uri, default mongodb://localhost:27017); uses a scratch database.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class BulkIngestBenchmark {
+
+    private static final int PRODUCTS = 1000;
+    private static final int CART_LINES = 100;
+
+    // Products per bulk write (app.products.bulk.chunk-size)
+    @Param({"100", "1000"})
+    public int chunkSize;
+
+    private MongoClient client;
+    private ProductService productService;
+    private CartService cartService;
+    private List<String> cartProductIds;
+    private long users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        MongoTemplate mongoTemplate = new MongoTemplate(client, "ecommerce_bench_bulk");
+        mongoTemplate.dropCollection(Product.class);
+        mongoTemplate.dropCollection(CartItem.class);
+        IndexManager indexManager = new IndexManager();
+        ReflectionTestUtils.setField(indexManager, "mongoTemplate", mongoTemplate);
+        indexManager.ensureIndexes(List.of(Product.class, CartItem.class));
+
+        MongoRepositoryFactory repositories = new MongoRepositoryFactory(mongoTemplate);
+        ProductRepository productRepository = repositories.getRepository(ProductRepository.class);
+        CartRepository cartRepository = repositories.getRepository(CartRepository.class);
+
+        ServiceMetrics serviceMetrics = new ServiceMetrics();
+        ReflectionTestUtils.setField(serviceMetrics, "meterRegistry", new SimpleMeterRegistry());
+        CartSnapshotCache cartSnapshotCache = new StandInRepositories(0).cartSnapshotCache(true);
+        ProductCache productCache = new ProductCache();
+        ReflectionTestUtils.setField(productCache, "productRepository", productRepository);
+        ReflectionTestUtils.setField(productCache, "cartSnapshotCache", cartSnapshotCache);
+        ReflectionTestUtils.setField(productCache, "maxSize", 10_000L);
+        ReflectionTestUtils.setField(productCache, "ttl", Duration.ofMinutes(10));
+        productCache.init();
+        CartCleanupQueue cartCleanupQueue = new CartCleanupQueue();
+        ReflectionTestUtils.setField(cartCleanupQueue, "cartRepository", cartRepository);
+
+        productService = new ProductService();
+        ReflectionTestUtils.setField(productService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(productService, "productCache", productCache);
+        ReflectionTestUtils.setField(productService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(productService, "inventoryEngine", new InventoryEngine());
+        ReflectionTestUtils.setField(productService, "serviceMetrics", serviceMetrics);
+        ReflectionTestUtils.setField(productService, "chunkSize", chunkSize);
+
+        cartService = new CartService();
+        ReflectionTestUtils.setField(cartService, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(cartService, "productCache", productCache);
+        ReflectionTestUtils.setField(cartService, "cartSnapshotCache", cartSnapshotCache);
+        ReflectionTestUtils.setField(cartService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(cartService, "serviceMetrics", serviceMetrics);
+        ReflectionTestUtils.setField(cartService, "cartCleanupQueue", cartCleanupQueue);
+        ReflectionTestUtils.setField(cartService, "maxBulkLines", CART_LINES);
+
+        cartProductIds = new ArrayList<>(CART_LINES);
+        for (int i = 0; i < CART_LINES; i++) {
+            cartProductIds.add(productService.createProduct(product(i)).getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        client.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PRODUCTS)
+    public void productsOneByOne(Blackhole blackhole) {
+        for (int i = 0; i < PRODUCTS; i++) {
+            blackhole.consume(productService.createProduct(product(i)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PRODUCTS)
+    public BulkResult productsBulk() {
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(product(i));
+        }
+        return productService.upsertProducts(products.iterator());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CART_LINES)
+    public void cartOneByOne(Blackhole blackhole) {
+        String userId = "user-" + users++;
+        for (String productId : cartProductIds) {
+            blackhole.consume(cartService.addToCart(new AddToCartRequest(userId, productId, 1)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CART_LINES)
+    public BulkResult cartBulk() {
+        List<CartLineRequest> lines = new ArrayList<>(CART_LINES);
+        for (String productId : cartProductIds) {
+            lines.add(new CartLineRequest(productId, 1));
+        }
+        return cartService.addAllToCart(new BulkAddToCartRequest("user-" + users++, lines));
+    }
+
+    private static Product product(int i) {
+        return new Product(null, "Product " + i, "Imported product " + i, 999L + i, 100);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.inclassassignment.bench;
+
+import com.example.inclassassignment.cache.CartSnapshotCache;
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.dto.CartItemResponse;
+import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.service.CartService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/cart/{userId}: round trips and latency percentiles (SampleTime reports p99) by cart size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartReadBenchmark {
+
+    @Param({"1", "10", "40", "100"})
+    public int cartSize;
+
+    // 0 disables the product cache so every read goes to the repository
+    @Param({"0", "10000"})
+    public long productCacheSize;
+
+    // Whole cart responses cached per user; repeat views of an unchanged cart skip the database entirely
+    @Param({"false", "true"})
+    public boolean cartSnapshots;
+
+    // Simulated MongoDB round-trip time per repository call
+    @Param({"200"})
+    public long roundTripMicros;
+
+    private StandInRepositories repositories;
+    private CartService cartService;
+    private long calls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repositories = new StandInRepositories(roundTripMicros);
+        for (int i = 0; i < cartSize; i++) {
+            repositories.putProduct(new Product("p" + i, "Product " + i, "Description " + i, 999L + 100L * i, 1000));
+            repositories.putCartItem(new CartItem("c" + i, "u1", "p" + i, 1 + i % 3));
+        }
+        CartSnapshotCache cartSnapshotCache = repositories.cartSnapshotCache(cartSnapshots);
+        ProductCache productCache = new ProductCache();
+        ReflectionTestUtils.setField(productCache, "productRepository", repositories.productRepository());
+        ReflectionTestUtils.setField(productCache, "cartSnapshotCache", cartSnapshotCache);
+        ReflectionTestUtils.setField(productCache, "maxSize", productCacheSize);
+        ReflectionTestUtils.setField(productCache, "ttl", Duration.ofMinutes(10));
+        productCache.init();
+
+        cartService = new CartService();
+        ReflectionTestUtils.setField(cartService, "cartRepository", repositories.cartRepository());
+        ReflectionTestUtils.setField(cartService, "productCache", productCache);
+        ReflectionTestUtils.setField(cartService, "cartSnapshotCache", cartSnapshotCache);
+        ReflectionTestUtils.setField(cartService, "cartCleanupQueue", repositories.cartCleanupQueue());
+    }
+
+    @Benchmark
+    public List<CartItemResponse> getCartByUserId() {
+        calls++;
+        return cartService.getCartByUserId("u1");
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%ncartSize=%d productCacheSize=%d cartSnapshots=%b round trips per call=%.1f%n",
+            cartSize, productCacheSize, cartSnapshots, (double) repositories.roundTrips() / Math.max(1, calls));
+    }
+}
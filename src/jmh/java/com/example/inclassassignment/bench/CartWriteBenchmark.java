@@ -0,0 +1,97 @@
+package com.example.inclassassignment.bench;
+
+import com.example.inclassassignment.cache.CartSnapshotCache;
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.dto.AddToCartRequest;
+import com.example.inclassassignment.metrics.ServiceMetrics;
+import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.service.CartService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// POST /api/cart/add: the product check plus the line upsert, cycling over cartSize distinct products
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartWriteBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    // 0 disables the product cache so every product check goes to the repository
+    @Param({"0", "10000"})
+    public long productCacheSize;
+
+    // Simulated MongoDB round-trip time per repository call
+    @Param({"200"})
+    public long roundTripMicros;
+
+    private StandInRepositories repositories;
+    private CartService cartService;
+    private AddToCartRequest[] requests;
+    private int next;
+    private long calls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repositories = new StandInRepositories(roundTripMicros);
+        requests = new AddToCartRequest[cartSize];
+        for (int i = 0; i < cartSize; i++) {
+            repositories.putProduct(new Product("p" + i, "Product " + i, "Description " + i, 999L + 100L * i, 1000));
+            requests[i] = new AddToCartRequest("u1", "p" + i, 1);
+        }
+        ProductCache productCache = new ProductCache();
+        CartSnapshotCache cartSnapshotCache = repositories.cartSnapshotCache(true);
+        ReflectionTestUtils.setField(productCache, "productRepository", repositories.productRepository());
+        ReflectionTestUtils.setField(productCache, "cartSnapshotCache", cartSnapshotCache);
+        ReflectionTestUtils.setField(productCache, "maxSize", productCacheSize);
+        ReflectionTestUtils.setField(productCache, "ttl", Duration.ofMinutes(10));
+        productCache.init();
+
+        cartService = new CartService();
+        ReflectionTestUtils.setField(cartService, "cartRepository", repositories.cartRepository());
+        ReflectionTestUtils.setField(cartService, "productCache", productCache);
+        ReflectionTestUtils.setField(cartService, "cartSnapshotCache", cartSnapshotCache);
+        ReflectionTestUtils.setField(cartService, "cartCleanupQueue", repositories.cartCleanupQueue());
+
+        // Service timers are part of the measured path
+        ServiceMetrics serviceMetrics = new ServiceMetrics();
+        ReflectionTestUtils.setField(serviceMetrics, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cartService, "serviceMetrics", serviceMetrics);
+        ReflectionTestUtils.setField(cartService, "mongoTemplate", repositories.mongoTemplate());
+    }
+
+    @Benchmark
+    public CartItem addToCart() {
+        calls++;
+        AddToCartRequest request = requests[next];
+        next = (next + 1) % requests.length;
+        return cartService.addToCart(request);
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%ncartSize=%d productCacheSize=%d round trips per call=%.1f%n",
+            cartSize, productCacheSize, (double) repositories.roundTrips() / Math.max(1, calls));
+    }
+}
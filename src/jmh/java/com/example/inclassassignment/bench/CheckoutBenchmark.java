@@ -0,0 +1,118 @@
+package com.example.inclassassignment.bench;
+
+import com.example.inclassassignment.cache.CartSnapshotCache;
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.dto.CreateOrderRequest;
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.metrics.ServiceMetrics;
+import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.service.OrderService;
+import com.example.inclassassignment.service.StockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// POST /api/orders: cart read, fresh product load, stock decrement, order insert and cart clear by order size.
+// The cart is refilled before every call outside the measured region.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"1", "10", "40", "100"})
+    public int orderSize;
+
+    // Reserve stock in memory instead of the guarded bulk decrement (write-back is not measured)
+    @Param({"false", "true"})
+    public boolean inventoryEngine;
+
+    // Simulated MongoDB round-trip time per repository call
+    @Param({"200"})
+    public long roundTripMicros;
+
+    private StandInRepositories repositories;
+    private OrderService orderService;
+    private CreateOrderRequest request;
+    private long calls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repositories = new StandInRepositories(roundTripMicros);
+        for (int i = 0; i < orderSize; i++) {
+            repositories.putProduct(new Product("p" + i, "Product " + i, "Description " + i, 999L + 100L * i, Integer.MAX_VALUE));
+        }
+        ProductCache productCache = new ProductCache();
+        CartSnapshotCache cartSnapshotCache = repositories.cartSnapshotCache(true);
+        ReflectionTestUtils.setField(productCache, "productRepository", repositories.productRepository());
+        ReflectionTestUtils.setField(productCache, "cartSnapshotCache", cartSnapshotCache);
+        ReflectionTestUtils.setField(productCache, "maxSize", 10000L);
+        ReflectionTestUtils.setField(productCache, "ttl", Duration.ofMinutes(10));
+        productCache.init();
+
+        MongoTemplate mongoTemplate = repositories.mongoTemplate();
+        StockService stockService = new StockService();
+        ReflectionTestUtils.setField(stockService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(stockService, "productCache", productCache);
+
+        orderService = new OrderService();
+        ReflectionTestUtils.setField(orderService, "orderRepository", repositories.orderRepository());
+        ReflectionTestUtils.setField(orderService, "cartRepository", repositories.cartRepository());
+        ReflectionTestUtils.setField(orderService, "productCache", productCache);
+        ReflectionTestUtils.setField(orderService, "cartSnapshotCache", cartSnapshotCache);
+        ReflectionTestUtils.setField(orderService, "cartCleanupQueue", repositories.cartCleanupQueue());
+        ReflectionTestUtils.setField(orderService, "stockDecrementBatcher", repositories.stockDecrementBatcher(stockService));
+        ReflectionTestUtils.setField(orderService, "stockService", stockService);
+
+        InventoryEngine engine = new InventoryEngine();
+        ReflectionTestUtils.setField(engine, "enabled", inventoryEngine);
+        ReflectionTestUtils.setField(orderService, "inventoryEngine", engine);
+
+        // Service timers are part of the measured path
+        ServiceMetrics serviceMetrics = new ServiceMetrics();
+        ReflectionTestUtils.setField(serviceMetrics, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(orderService, "serviceMetrics", serviceMetrics);
+
+        request = new CreateOrderRequest("u1");
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        repositories.clearCart("u1");
+        for (int i = 0; i < orderSize; i++) {
+            repositories.putCartItem(new CartItem("c" + i, "u1", "p" + i, 1));
+        }
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        calls++;
+        return orderService.createOrder(request);
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.printf("%norderSize=%d inventoryEngine=%b round trips per call=%.1f%n",
+            orderSize, inventoryEngine, (double) repositories.roundTrips() / Math.max(1, calls));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.inclassassignment.bench;
+
+import com.example.inclassassignment.inventory.StripedCounter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Reserve-and-release throughput on a single SKU with every core checking out at once.
+// stripes=1 is a plain CAS counter; compare with more stripes to see the contention drop.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class HotSkuBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    public int stripes;
+
+    private StripedCounter counter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        counter = new StripedCounter(stripes, 1_000_000);
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        boolean reserved = counter.tryAcquire(1);
+        if (reserved) {
+            counter.release(1);
+        }
+        return reserved;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.inclassassignment.bench;
+
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Order documents in the old layout (UUID ids, double amounts, items repeating their own id and the order id)
+// vs the compact one (ObjectId, minor units as longs, bare embedded items): id generation plus BSON encoding
+// per order, and the encoded size, printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderDocumentBenchmark {
+
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    @Param({"legacy", "compact"})
+    public String layout;
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    @Setup(Level.Trial)
+    public void reportSize() {
+        int bytes = new RawBsonDocument(order(layout, lines), CODEC).getByteBuffer().remaining();
+        System.out.printf("%n%s order with %d lines: %d bytes%n", layout, lines, bytes);
+    }
+
+    @Benchmark
+    public RawBsonDocument buildAndEncode() {
+        return new RawBsonDocument(order(layout, lines), CODEC);
+    }
+
+    static Document order(String layout, int lines) {
+        return "legacy".equals(layout) ? legacyOrder(lines) : compactOrder(lines);
+    }
+
+    static Document legacyOrder(int lines) {
+        String orderId = UUID.randomUUID().toString();
+        List<Document> items = new ArrayList<>(lines);
+        double total = 0;
+        for (int i = 0; i < lines; i++) {
+            double price = 9.99 + i;
+            int quantity = 1 + i % 3;
+            total += price * quantity;
+            items.add(new Document("_id", UUID.randomUUID().toString())
+                .append("orderId", orderId)
+                .append("productId", "product-" + i)
+                .append("quantity", quantity)
+                .append("price", price));
+        }
+        return new Document("_id", orderId)
+            .append("userId", "user-1")
+            .append("totalAmount", total)
+            .append("status", "CREATED")
+            .append("createdAt", new Date())
+            .append("items", items)
+            .append("_class", "com.example.inclassassignment.model.Order");
+    }
+
+    static Document compactOrder(int lines) {
+        List<Document> items = new ArrayList<>(lines);
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            long price = 999 + 100L * i;
+            int quantity = 1 + i % 3;
+            total += price * quantity;
+            items.add(new Document("productId", "product-" + i)
+                .append("quantity", quantity)
+                .append("price", price));
+        }
+        return new Document("_id", new ObjectId())
+            .append("userId", "user-1")
+            .append("totalAmount", total)
+            .append("status", "CREATED")
+            .append("createdAt", new Date())
+            .append("items", items)
+            .append("_class", "com.example.inclassassignment.model.Order");
+    }
+}
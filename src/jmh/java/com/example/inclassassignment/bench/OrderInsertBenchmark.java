@@ -0,0 +1,72 @@
+package com.example.inclassassignment.bench;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Order insert throughput for the old and the compact document layout (see OrderDocumentBenchmark), with
+// the userId and createdAt indexes the model declares. Random UUID keys scatter inserts across the _id index,
+// ObjectIds append to its right edge. Needs a running MongoDB (-Dbench.mongo.uri, default mongodb://localhost:27017);
+// the collection size and average document size are printed when the trial ends.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(4)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    @Param({"legacy", "compact"})
+    public String layout;
+
+    @Param({"3", "20"})
+    public int lines;
+
+    private MongoClient client;
+    private MongoCollection<Document> orders;
+
+    @Setup(Level.Trial)
+    public void connect() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        orders = client.getDatabase("ecommerce_bench_orders").getCollection(layout + "_" + lines);
+        orders.drop();
+        orders.createIndex(new Document("userId", 1));
+        orders.createIndex(new Document("createdAt", 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        Document stats = client.getDatabase("ecommerce_bench_orders").runCommand(new Document("aggregate", orders.getNamespace().getCollectionName())
+            .append("pipeline", List.of(new Document("$collStats", new Document("storageStats", new Document()))))
+            .append("cursor", new Document()))
+            .get("cursor", Document.class).getList("firstBatch", Document.class).get(0)
+            .get("storageStats", Document.class);
+        System.out.printf("%n%s, %d lines: %s orders, avg %s bytes, %s bytes of indexes%n",
+            layout, lines, stats.get("count"), stats.get("avgObjSize"), stats.get("totalIndexSize"));
+        client.close();
+    }
+
+    @Benchmark
+    public void insert() {
+        orders.insertOne(OrderDocumentBenchmark.order(layout, lines));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.inclassassignment.bench;
+
+import com.example.inclassassignment.model.Product;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// GET /api/products/search: text index lookup vs the old unanchored case-insensitive regex scan.
+// Needs a running MongoDB (-Dbench.mongo.uri, default mongodb://localhost:27017); seeds a scratch database per catalog size.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {
+        "laptop", "mouse", "keyboard", "monitor", "headset", "webcam", "charger", "cable",
+        "gaming", "wireless", "mechanical", "ergonomic", "portable", "compact", "premium", "budget"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    public int catalogSize;
+
+    // A common word and one that matches nothing (the regex has to scan the whole collection)
+    @Param({"keyboard", "xylophone"})
+    public String term;
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, "ecommerce_bench_search_" + catalogSize);
+        if (mongoTemplate.count(new Query(), Product.class) == catalogSize) {
+            return;
+        }
+
+        mongoTemplate.dropCollection(Product.class);
+        Random random = new Random(42);
+        List<Product> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < catalogSize; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            batch.add(new Product(null, name, description, 1000L + 100L * random.nextInt(1000), 100));
+            if (batch.size() == 10_000) {
+                mongoTemplate.insert(batch, Product.class);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            mongoTemplate.insert(batch, Product.class);
+        }
+        mongoTemplate.indexOps(Product.class).createIndex(new TextIndexDefinition.TextIndexDefinitionBuilder()
+            .onField("name", 3F)
+            .onField("description")
+            .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        client.close();
+    }
+
+    @Benchmark
+    public List<Product> textIndexSearch() {
+        TextQuery query = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(term)).sortByScore();
+        query.with(PageRequest.of(0, 20));
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    @Benchmark
+    public List<Product> regexScan() {
+        Query query = new Query(where("name").regex(Pattern.compile(Pattern.quote(term), Pattern.CASE_INSENSITIVE)));
+        query.limit(20);
+        return mongoTemplate.find(query, Product.class);
+    }
+}
@@ -0,0 +1,272 @@
+package com.example.inclassassignment.bench;
+
+import com.example.inclassassignment.cache.CartSnapshotCache;
+import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.repository.CartRepository;
+import com.example.inclassassignment.repository.OrderRepository;
+import com.example.inclassassignment.repository.ProductRepository;
+import com.example.inclassassignment.service.StockService;
+import com.example.inclassassignment.writebehind.CartCleanupQueue;
+import com.example.inclassassignment.writebehind.StockDecrementBatcher;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+// In-memory stand-ins for the Mongo repositories. Each call is charged one simulated round trip so
+// benchmarks measure the query pattern rather than the map lookups.
+public class StandInRepositories {
+
+    private final Map<String, Product> products = new ConcurrentHashMap<>();
+    private final Map<String, CartItem> cartItems = new ConcurrentHashMap<>();
+    private final Map<String, Order> orders = new ConcurrentHashMap<>();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final long roundTripNanos;
+
+    public StandInRepositories(long roundTripMicros) {
+        this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+    }
+
+    public long roundTrips() {
+        return roundTrips.get();
+    }
+
+    public void resetRoundTrips() {
+        roundTrips.set(0);
+    }
+
+    private void roundTrip() {
+        roundTrips.incrementAndGet();
+        if (roundTripNanos > 0) {
+            LockSupport.parkNanos(roundTripNanos);
+        }
+    }
+
+    public ProductRepository productRepository() {
+        return (ProductRepository) Proxy.newProxyInstance(
+            ProductRepository.class.getClassLoader(),
+            new Class<?>[] { ProductRepository.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findById":
+                        roundTrip();
+                        return Optional.ofNullable(products.get((String) args[0]));
+                    case "findAllById": {
+                        roundTrip();
+                        List<Product> found = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            Product p = products.get((String) id);
+                            if (p != null) {
+                                found.add(p);
+                            }
+                        }
+                        return found;
+                    }
+                    case "save": {
+                        roundTrip();
+                        Product p = (Product) args[0];
+                        products.put(p.getId(), p);
+                        return p;
+                    }
+                    case "toString":
+                        return "ProductRepository stand-in";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    public CartRepository cartRepository() {
+        return (CartRepository) Proxy.newProxyInstance(
+            CartRepository.class.getClassLoader(),
+            new Class<?>[] { CartRepository.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findByUserId":
+                        roundTrip();
+                        return cartItems.values().stream()
+                            .filter(item -> item.getUserId().equals(args[0]))
+                            .collect(Collectors.toList());
+                    case "findByUserIdAndProductId":
+                        roundTrip();
+                        return cartItems.values().stream()
+                            .filter(item -> item.getUserId().equals(args[0]) && item.getProductId().equals(args[1]))
+                            .findFirst()
+                            .orElse(null);
+                    case "save": {
+                        roundTrip();
+                        CartItem item = (CartItem) args[0];
+                        cartItems.put(item.getId(), item);
+                        return item;
+                    }
+                    case "deleteByUserId":
+                        roundTrip();
+                        cartItems.values().removeIf(item -> item.getUserId().equals(args[0]));
+                        return null;
+                    case "toString":
+                        return "CartRepository stand-in";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    public OrderRepository orderRepository() {
+        return (OrderRepository) Proxy.newProxyInstance(
+            OrderRepository.class.getClassLoader(),
+            new Class<?>[] { OrderRepository.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findById":
+                        roundTrip();
+                        return Optional.ofNullable(orders.get((String) args[0]));
+                    case "save": {
+                        roundTrip();
+                        Order order = (Order) args[0];
+                        orders.put(order.getId(), order);
+                        return order;
+                    }
+                    case "toString":
+                        return "OrderRepository stand-in";
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    // A MongoTemplate that never connects: only the cart upsert (findAndModify) and the stock bulk $inc
+    // are supported, each charged as one round trip.
+    public MongoTemplate mongoTemplate() {
+        MongoDatabaseFactory factory = (MongoDatabaseFactory) Proxy.newProxyInstance(
+            MongoDatabaseFactory.class.getClassLoader(),
+            new Class<?>[] { MongoDatabaseFactory.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("getExceptionTranslator")) {
+                    return new MongoExceptionTranslator();
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+        return new MongoTemplate(factory) {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T findAndModify(Query query, UpdateDefinition update, FindAndModifyOptions options, Class<T> entityClass) {
+                if (entityClass != CartItem.class) {
+                    throw new UnsupportedOperationException("findAndModify " + entityClass.getSimpleName());
+                }
+                roundTrip();
+                Document filter = query.getQueryObject();
+                Document changes = update.getUpdateObject();
+                String userId = filter.getString("userId");
+                String productId = filter.getString("productId");
+                int quantity = changes.get("$inc", Document.class).getInteger("quantity");
+
+                synchronized (cartItems) {
+                    CartItem line = cartItems.values().stream()
+                        .filter(item -> item.getUserId().equals(userId) && item.getProductId().equals(productId))
+                        .findFirst()
+                        .orElse(null);
+                    if (line == null) {
+                        String id = changes.get("$setOnInsert", Document.class).getString("_id");
+                        line = new CartItem(id, userId, productId, quantity);
+                        cartItems.put(id, line);
+                    } else {
+                        line.setQuantity(line.getQuantity() + quantity);
+                    }
+                    return (T) line;
+                }
+            }
+
+            @Override
+            public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityType) {
+                if (entityType != Product.class) {
+                    throw new UnsupportedOperationException("bulkOps " + entityType.getSimpleName());
+                }
+                return productBulkOps();
+            }
+        };
+    }
+
+    // Collects updateOne/upsert calls and applies their $inc on stock when executed
+    private BulkOperations productBulkOps() {
+        List<Object[]> writes = new ArrayList<>();
+        return (BulkOperations) Proxy.newProxyInstance(
+            BulkOperations.class.getClassLoader(),
+            new Class<?>[] { BulkOperations.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "updateOne":
+                    case "upsert":
+                        writes.add(args);
+                        return proxy;
+                    case "execute":
+                        roundTrip();
+                        for (Object[] write : writes) {
+                            String id = ((Query) write[0]).getQueryObject().getString("_id");
+                            int delta = ((UpdateDefinition) write[1]).getUpdateObject().get("$inc", Document.class).getInteger("stock");
+                            products.computeIfPresent(id, (key, p) -> {
+                                p.setStock(p.getStock() + delta);
+                                return p;
+                            });
+                        }
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    }
+
+    // Write-behind switched off: cart clears and stock decrements go straight to the stand-ins
+    public CartCleanupQueue cartCleanupQueue() {
+        CartCleanupQueue queue = new CartCleanupQueue();
+        ReflectionTestUtils.setField(queue, "cartRepository", cartRepository());
+        return queue;
+    }
+
+    public CartSnapshotCache cartSnapshotCache(boolean enabled) {
+        CartSnapshotCache cache = new CartSnapshotCache();
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxLines", 100_000L);
+        ReflectionTestUtils.setField(cache, "idleTtl", Duration.ofMinutes(10));
+        cache.init();
+        return cache;
+    }
+
+    public StockDecrementBatcher stockDecrementBatcher(StockService stockService) {
+        StockDecrementBatcher batcher = new StockDecrementBatcher();
+        ReflectionTestUtils.setField(batcher, "stockService", stockService);
+        return batcher;
+    }
+
+    public void putProduct(Product product) {
+        products.put(product.getId(), product);
+    }
+
+    public void putCartItem(CartItem item) {
+        cartItems.put(item.getId(), item);
+    }
+
+    public void clearCart(String userId) {
+        cartItems.values().removeIf(item -> item.getUserId().equals(userId));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.dto.CartItemResponse;
+import com.example.inclassassignment.dto.OrderResponse;
+import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.OrderItem;
+import com.example.inclassassignment.model.Payment;
+import com.example.inclassassignment.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// CPU cost of building the response DTOs and writing them as JSON, by number of order or cart lines.
+// Lives in the service package to reach the package-private converters.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private Order order;
+    private Payment payment;
+    private List<CartItem> cartItems;
+    private List<Product> products;
+    private OrderResponse orderResponse;
+    private List<CartItemResponse> cartResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<OrderItem> items = new ArrayList<>(lines);
+        cartItems = new ArrayList<>(lines);
+        products = new ArrayList<>(lines);
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            Product product = new Product("p" + i, "Product " + i, "Description of product " + i, 999L + 100L * i, 1000);
+            products.add(product);
+            cartItems.add(new CartItem("c" + i, "u1", product.getId(), 1 + i % 3));
+            long price = product.getPrice();
+            items.add(new OrderItem(product.getId(), 1 + i % 3, price));
+            total += price * (1 + i % 3);
+        }
+        order = new Order("o1", "u1", total, "PAID", Instant.now(), items, null, null, null, 0L);
+        payment = new Payment("pay1", "o1", total, "SUCCESS", "pay_0123456789abcdef", Instant.now());
+
+        orderResponse = OrderService.convertToResponse(order, payment);
+        cartResponse = mapCart();
+    }
+
+    @Benchmark
+    public OrderResponse orderToResponse() {
+        return OrderService.convertToResponse(order, payment);
+    }
+
+    @Benchmark
+    public List<CartItemResponse> cartToResponse() {
+        return mapCart();
+    }
+
+    @Benchmark
+    public byte[] orderResponseToJson() {
+        return jsonMapper.writeValueAsBytes(orderResponse);
+    }
+
+    @Benchmark
+    public byte[] cartResponseToJson() {
+        return jsonMapper.writeValueAsBytes(cartResponse);
+    }
+
+    @Benchmark
+    public void productsToJson(Blackhole blackhole) {
+        // Per-item writes, as the NDJSON export does
+        for (Product product : products) {
+            blackhole.consume(jsonMapper.writeValueAsBytes(product));
+        }
+    }
+
+    private List<CartItemResponse> mapCart() {
+        List<CartItemResponse> responses = new ArrayList<>(cartItems.size());
+        for (int i = 0; i < cartItems.size(); i++) {
+            responses.add(CartService.convertToResponse(cartItems.get(i), products.get(i)));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.inclassassignment.loadtest;
+
+import com.example.inclassassignment.InClassAssignmentApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop checkout load over the REST API: cart add -> cart read -> order -> payment -> webhook -> order read.
+// Each worker plays its own user; products come from the Postman collection. Needs the configured MongoDB.
+public class CheckoutLoadTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    private final Options options;
+    private final HttpClient client;
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final AtomicLong flows = new AtomicLong();
+    private final AtomicLong failedFlows = new AtomicLong();
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private volatile boolean recording;
+    private List<String> productIds;
+
+    public CheckoutLoadTest(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(Math.max(2, options.concurrency / 4)))
+            .build();
+        for (String endpoint : List.of("POST /api/cart/add", "GET /api/cart/{userId}", "POST /api/orders",
+                "POST /api/payments/create", "POST /api/webhooks/payment", "GET /api/orders/{orderId}")) {
+            stats.put(endpoint, new EndpointStats(endpoint));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (options == null) {
+            Options.usage(System.out);
+            return;
+        }
+
+        ConfigurableApplicationContext app = null;
+        if (options.startApp) {
+            app = SpringApplication.run(InClassAssignmentApplication.class, "--server.port=0");
+            options.baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            CheckoutLoadTest test = new CheckoutLoadTest(options);
+            test.seed();
+            test.run();
+            test.report(System.out);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    void seed() throws IOException, InterruptedException {
+        List<JsonNode> templates = productTemplates(options.postmanCollection);
+        productIds = new ArrayList<>(options.products);
+        for (int i = 0; i < options.products; i++) {
+            ObjectNode body = ((ObjectNode) templates.get(i % templates.size()).deepCopy())
+                .put("stock", options.stock);
+            body.put("name", body.get("name").asString() + " " + runId + "-" + i);
+            HttpResponse<String> response = send("POST", "/api/products", body, null);
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding products failed with HTTP " + response.statusCode()
+                    + " from " + options.baseUrl);
+            }
+            productIds.add(JSON.readTree(response.body()).get("id").asString());
+        }
+        System.out.printf("Seeded %d products against %s%n", productIds.size(), options.baseUrl);
+    }
+
+    void run() throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency);
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+
+        for (int w = 0; w < options.concurrency; w++) {
+            String userId = "load-" + runId + "-" + w;
+            workers.submit(() -> {
+                while (System.nanoTime() < end) {
+                    recording = System.nanoTime() >= measureFrom;
+                    boolean completed = checkout(userId);
+                    if (recording) {
+                        (completed ? flows : failedFlows).incrementAndGet();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(options.warmup.plus(options.duration).toSeconds() + 60, TimeUnit.SECONDS);
+    }
+
+    // One pass through the flow; returns false as soon as a step fails
+    private boolean checkout(String userId) {
+        try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < options.lines; i++) {
+                ObjectNode add = JSON.createObjectNode()
+                    .put("userId", userId)
+                    .put("productId", productIds.get(random.nextInt(productIds.size())))
+                    .put("quantity", 1 + random.nextInt(3));
+                if (call("POST /api/cart/add", "POST", "/api/cart/add", add, 200) == null) {
+                    return false;
+                }
+            }
+            if (call("GET /api/cart/{userId}", "GET", "/api/cart/" + userId, null, 200) == null) {
+                return false;
+            }
+
+            JsonNode order = call("POST /api/orders", "POST", "/api/orders",
+                JSON.createObjectNode().put("userId", userId), 201);
+            if (order == null) {
+                // Leave an empty cart for the next flow
+                send("DELETE", "/api/cart/" + userId + "/clear", null, null);
+                return false;
+            }
+            String orderId = order.get("id").asString();
+
+            JsonNode payment = call("POST /api/payments/create", "POST", "/api/payments/create",
+                JSON.createObjectNode().put("orderId", orderId).put("amount", order.get("totalAmount").decimalValue()), 201);
+            if (payment == null) {
+                return false;
+            }
+
+            ObjectNode webhook = JSON.createObjectNode()
+                .put("eventId", "evt-" + payment.get("id").asString())
+                .put("paymentId", payment.get("id").asString())
+                .put("status", random.nextInt(100) < options.failedPaymentPercent ? "FAILED" : "SUCCESS");
+            if (call("POST /api/webhooks/payment", "POST", "/api/webhooks/payment", webhook, 202) == null) {
+                return false;
+            }
+
+            return call("GET /api/orders/{orderId}", "GET", "/api/orders/" + orderId, null, 200) != null;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Sends one request and records it under the endpoint; returns the parsed body, or null on failure
+    private JsonNode call(String endpoint, String method, String path, JsonNode body, int expectedStatus)
+            throws InterruptedException {
+        long started = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            response = send(method, path, body, options.requestTimeout);
+        } catch (IOException e) {
+            // Connection failures count as errors
+        }
+        long elapsed = System.nanoTime() - started;
+        boolean success = response != null && response.statusCode() == expectedStatus;
+        if (recording) {
+            stats.get(endpoint).record(elapsed, success);
+        }
+        if (!success) {
+            return null;
+        }
+        String text = response.body();
+        return text == null || text.isEmpty() ? JSON.createObjectNode() : JSON.readTree(text);
+    }
+
+    private HttpResponse<String> send(String method, String path, JsonNode body, Duration timeout)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(options.baseUrl + path))
+            .timeout(timeout != null ? timeout : Duration.ofSeconds(30));
+        if (body != null) {
+            request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    void report(PrintStream out) throws IOException {
+        double seconds = options.duration.toNanos() / 1e9;
+        StringBuilder csv = new StringBuilder("endpoint,requests,errors,error_rate,throughput_rps,p50_ms,p95_ms,p99_ms,p999_ms,max_ms\n");
+
+        out.printf("%nCheckout load test: %s, concurrency %d, %d line(s) per order, %.1fs measured after %.1fs warm-up%n",
+            options.baseUrl, options.concurrency, options.lines, seconds, options.warmup.toMillis() / 1000.0);
+        out.printf("Flows: %d completed, %d failed (%.1f flows/s)%n%n",
+            flows.get(), failedFlows.get(), flows.get() / seconds);
+        out.printf("%-28s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+            "Endpoint", "Requests", "Errors", "Err %", "Req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+
+        for (EndpointStats endpoint : stats.values()) {
+            long count = endpoint.count();
+            double errorRate = count == 0 ? 0 : 100.0 * endpoint.errors() / count;
+            double[] p = endpoint.percentilesMillis();
+            out.printf("%-28s %9d %7d %7.2f %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint.name(), count, endpoint.errors(), errorRate, count / seconds, p[0], p[1], p[2], p[3], p[4]);
+            csv.append(String.format("%s,%d,%d,%.4f,%.2f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                endpoint.name(), count, endpoint.errors(), errorRate / 100, count / seconds, p[0], p[1], p[2], p[3], p[4]));
+        }
+
+        if (options.report != null) {
+            Path report = Path.of(options.report);
+            if (report.getParent() != null) {
+                Files.createDirectories(report.getParent());
+            }
+            Files.writeString(report, csv.toString());
+            out.printf("%nWrote %s%n", report);
+        }
+    }
+
+    // Bodies of the POST /api/products requests in the Postman collection
+    static List<JsonNode> productTemplates(String collection) throws IOException {
+        List<JsonNode> templates = new ArrayList<>();
+        collectProductTemplates(JSON.readTree(Files.readString(Path.of(collection))), templates);
+        if (templates.isEmpty()) {
+            throw new IllegalStateException("No POST /api/products requests found in " + collection);
+        }
+        return templates;
+    }
+
+    private static void collectProductTemplates(JsonNode node, List<JsonNode> templates) {
+        JsonNode request = node.get("request");
+        if (request != null && "POST".equals(request.path("method").asString(""))) {
+            JsonNode url = request.get("url");
+            String raw = url.isString() ? url.asString() : url.path("raw").asString("");
+            if (raw.endsWith("/api/products")) {
+                templates.add(JSON.readTree(request.path("body").path("raw").asString("")));
+            }
+        }
+        for (JsonNode child : node.path("item")) {
+            collectProductTemplates(child, templates);
+        }
+    }
+
+    static class Options {
+        String baseUrl = "http://localhost:8080";
+        boolean startApp;
+        int concurrency = 16;
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        Duration requestTimeout = Duration.ofSeconds(10);
+        int products = 100;
+        int stock = 1_000_000;
+        int lines = 3;
+        int failedPaymentPercent = 0;
+        String postmanCollection = "Postman_Collection.json";
+        String report = "target/loadtest/checkout.csv";
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.equals("--help")) {
+                    return null;
+                }
+                if (arg.equals("--start-app")) {
+                    options.startApp = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + arg);
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--base-url" -> options.baseUrl = value.replaceAll("/+$", "");
+                    case "--concurrency" -> options.concurrency = Integer.parseInt(value);
+                    case "--duration" -> options.duration = duration(value);
+                    case "--warmup" -> options.warmup = duration(value);
+                    case "--timeout" -> options.requestTimeout = duration(value);
+                    case "--products" -> options.products = Integer.parseInt(value);
+                    case "--stock" -> options.stock = Integer.parseInt(value);
+                    case "--lines" -> options.lines = Integer.parseInt(value);
+                    case "--failed-payments" -> options.failedPaymentPercent = Integer.parseInt(value);
+                    case "--postman" -> options.postmanCollection = value;
+                    case "--report" -> options.report = value.isEmpty() ? null : value;
+                    default -> throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            return options;
+        }
+
+        // Accepts 30s, 5m, 500ms or plain seconds
+        static Duration duration(String value) {
+            if (value.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+            }
+            if (value.endsWith("s")) {
+                return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+            }
+            if (value.endsWith("m")) {
+                return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+            }
+            return Duration.ofSeconds(Long.parseLong(value));
+        }
+
+        static void usage(PrintStream out) {
+            out.println("""
+                Checkout load test: cart add -> cart read -> order -> payment -> webhook -> order read
+
+                  --base-url URL          target application (default http://localhost:8080)
+                  --start-app             start the application in this JVM on a random port instead
+                  --concurrency N         concurrent users, one closed loop each (default 16)
+                  --duration D            measured duration, e.g. 60s or 5m (default 60s)
+                  --warmup D              unmeasured warm-up before it (default 10s)
+                  --timeout D             per-request timeout (default 10s)
+                  --products N            products to seed (default 100)
+                  --stock N               stock per seeded product (default 1000000)
+                  --lines N               cart lines per order (default 3)
+                  --failed-payments PCT   share of webhooks reporting FAILED (default 0)
+                  --postman FILE          collection to take product bodies from (default Postman_Collection.json)
+                  --report FILE           CSV report path, empty to skip (default target/loadtest/checkout.csv)
+                """);
+        }
+    }
+}
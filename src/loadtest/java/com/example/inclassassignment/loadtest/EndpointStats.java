@@ -0,0 +1,56 @@
+package com.example.inclassassignment.loadtest;
+
+import java.util.Arrays;
+
+// Latencies and failures for one endpoint. Samples are kept raw so percentiles are exact.
+public class EndpointStats {
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long nanos, boolean success) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized long errors() {
+        return errors;
+    }
+
+    // Nearest-rank percentiles in milliseconds: p50, p95, p99, p99.9 and max
+    public synchronized double[] percentilesMillis() {
+        if (count == 0) {
+            return new double[5];
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new double[] {
+            millis(sorted, 0.50), millis(sorted, 0.95), millis(sorted, 0.99), millis(sorted, 0.999),
+            sorted[count - 1] / 1_000_000.0
+        };
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+}
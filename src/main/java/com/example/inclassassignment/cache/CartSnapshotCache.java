@@ -0,0 +1,134 @@
+package com.example.inclassassignment.cache;
+
+import com.example.inclassassignment.dto.CartItemResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Fully built GET /api/cart responses per user, so repeat views cost no database round trips.
+// Bounded by the total number of cached cart lines; the least recently viewed carts go first.
+// Invalidated when the cart changes (add, clear, checkout) and when a product in it changes price or stock.
+@Component
+public class CartSnapshotCache implements MeterBinder {
+
+    @Value("${app.cache.carts.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.carts.max-lines:100000}")
+    private long maxLines;
+
+    @Value("${app.cache.carts.idle-ttl:10m}")
+    private Duration idleTtl;
+
+    private Cache<String, Snapshot> snapshots;
+
+    // Users whose snapshot shows a product; stale entries only cause an extra invalidation and are
+    // dropped when the product changes or the snapshot is evicted
+    private final Map<String, Set<String>> usersByProduct = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        snapshots = Caffeine.newBuilder()
+            .maximumWeight(maxLines)
+            .weigher((String userId, Snapshot snapshot) -> 1 + snapshot.lines.size())
+            .expireAfterAccess(idleTtl)
+            // Runs atomically with the eviction, so it cannot race a reload of the same cart
+            .evictionListener((String userId, Snapshot snapshot, RemovalCause cause) -> untrack(userId, snapshot))
+            .recordStats()
+            .build();
+    }
+
+    // Returns the cached cart, or builds it with the loader. Loads of one user are serialized with its
+    // invalidations: an invalidation waits for an in-flight load and then drops what it produced.
+    // The loader must call track() with the cart's products before it reads them.
+    public List<CartItemResponse> get(String userId, Function<String, List<CartItemResponse>> loader) {
+        if (!enabled) {
+            return loader.apply(userId);
+        }
+        return snapshots.get(userId, key -> new Snapshot(List.copyOf(loader.apply(key)))).lines;
+    }
+
+    public void track(String userId, Collection<String> productIds) {
+        if (!enabled) {
+            return;
+        }
+        for (String productId : productIds) {
+            usersByProduct.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(userId);
+        }
+    }
+
+    // Its product links are left in place: untracking here could race a reload that links them again
+    public void invalidate(String userId) {
+        if (!enabled) {
+            return;
+        }
+        snapshots.invalidate(userId);
+    }
+
+    // Called by ProductCache whenever a product is written or its cached copy is dropped
+    public void onProductsChanged(Collection<String> productIds) {
+        for (String productId : productIds) {
+            Set<String> users = usersByProduct.remove(productId);
+            if (users != null) {
+                users.forEach(this::invalidate);
+            }
+        }
+    }
+
+    private void untrack(String userId, Snapshot snapshot) {
+        for (CartItemResponse line : snapshot.lines) {
+            Set<String> users = usersByProduct.get(line.getProductId());
+            if (users != null) {
+                users.remove(userId);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = snapshots.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("size", snapshots.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("trackedProducts", usersByProduct.size());
+        return result;
+    }
+
+    // Hit ratio, size and evictions as cache.* meters tagged cache=carts
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, snapshots, "carts");
+        Gauge.builder("cache.tracked.products", usersByProduct, Map::size)
+            .tag("cache", "carts")
+            .description("Products referenced by cached cart snapshots")
+            .register(registry);
+    }
+
+    private static class Snapshot {
+        final List<CartItemResponse> lines;
+
+        Snapshot(List<CartItemResponse> lines) {
+            this.lines = lines;
+        }
+    }
+}
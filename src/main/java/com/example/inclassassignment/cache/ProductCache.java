@@ -0,0 +1,144 @@
+package com.example.inclassassignment.cache;
+
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ProductCache implements MeterBinder {
+    
+    @Autowired
+    private ProductRepository productRepository;
+    
+    @Autowired
+    private CartSnapshotCache cartSnapshotCache;
+    
+    @Value("${app.cache.products.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${app.cache.products.ttl:10m}")
+    private Duration ttl;
+    
+    private Cache<String, Product> products;
+    
+    // Bumped by every write and eviction; lets a read-through fill tell that its copy may already be stale
+    private final AtomicLong changes = new AtomicLong();
+    
+    @PostConstruct
+    public void init() {
+        products = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+    
+    // Read-through lookup; only hits the database on a miss
+    public Optional<Product> get(String id) {
+        return Optional.ofNullable(products.get(id, key -> productRepository.findById(key).orElse(null)));
+    }
+    
+    // Read-through bulk lookup; all misses are loaded with a single $in query. Unlike get, a bulk load is not
+    // atomic with eviction, so the loaded copies go in through fill.
+    public Map<String, Product> getAll(Collection<String> ids) {
+        Map<String, Product> found = new HashMap<>(products.getAllPresent(ids));
+        List<String> missing = new ArrayList<>();
+        for (String id : ids) {
+            if (!found.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(load(missing));
+        }
+        return found;
+    }
+    
+    // Bypasses the cache for callers that need current stock (checkout) and writes the fresh copies back
+    public Map<String, Product> getAllFresh(Collection<String> ids) {
+        return load(ids);
+    }
+    
+    private Map<String, Product> load(Collection<String> ids) {
+        long changeCountBeforeRead = changeCount();
+        Map<String, Product> loaded = new HashMap<>();
+        for (Product p : productRepository.findAllById(ids)) {
+            loaded.put(p.getId(), p);
+            fill(p, changeCountBeforeRead);
+        }
+        return loaded;
+    }
+    
+    // Cache-only lookup that never touches the database; used by the reactive read path
+    public Map<String, Product> getAllPresent(Collection<String> ids) {
+        return products.getAllPresent(ids);
+    }
+    
+    // Take before reading a product from the database, then pass to fill
+    public long changeCount() {
+        return changes.get();
+    }
+    
+    // Caches a product just read from the database. Not a product change, so cart snapshots are kept; skipped
+    // when anything was written or evicted since the read began, so a slow read cannot put back what an
+    // eviction removed or overwrite a newer put
+    public void fill(Product product, long changeCountBeforeRead) {
+        products.asMap().compute(product.getId(), (id, current) ->
+            changes.get() != changeCountBeforeRead ? current : product);
+    }
+    
+    // Writes and evictions follow a product change, so cart snapshots showing the product are dropped as well
+    public void put(Product product) {
+        changes.incrementAndGet();
+        products.put(product.getId(), product);
+        cartSnapshotCache.onProductsChanged(List.of(product.getId()));
+    }
+    
+    public void evict(String id) {
+        changes.incrementAndGet();
+        products.invalidate(id);
+        cartSnapshotCache.onProductsChanged(List.of(id));
+    }
+    
+    public void evictAll(Collection<String> ids) {
+        changes.incrementAndGet();
+        products.invalidateAll(ids);
+        cartSnapshotCache.onProductsChanged(ids);
+    }
+    
+    public Map<String, Object> stats() {
+        CacheStats stats = products.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", products.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+    
+    // Hit ratio, size and evictions as cache.* meters tagged cache=products
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.inclassassignment.catalog;
+
+import com.example.inclassassignment.model.CatalogJob;
+import com.example.inclassassignment.model.Product;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+// Streams products in _id order from a MongoDB cursor into a channel as CSV or NDJSON through one direct buffer.
+// A resumed file export truncates to its checkpoint and continues after the last _id written.
+@Component
+public class CatalogExporter {
+
+    private static final byte[] NEWLINE = { '\n' };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${app.catalog.buffer-bytes:262144}")
+    private int bufferBytes;
+
+    @Value("${app.catalog.checkpoint-records:10000}")
+    private long checkpointRecords;
+
+    // Runs from the job's checkpoint until every product is written (true) or stop returns true at a checkpoint (false)
+    public boolean run(CatalogJob job, Path file, BooleanSupplier stop, Consumer<CatalogJob> checkpoint) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(job.getOffset());
+            channel.position(job.getOffset());
+            boolean finished = write("CSV".equals(job.getFormat()), job.getLastId(), job.getOffset() == 0, channel, stop,
+                (records, bytes, lastId) -> {
+                    job.setRecords(job.getRecords() + records);
+                    job.setSucceeded(job.getRecords());
+                    job.setOffset(job.getOffset() + bytes);
+                    job.setLastId(lastId);
+                    checkpoint.accept(job);
+                });
+            channel.force(false);
+            return finished;
+        }
+    }
+
+    // For GET /api/catalog/export: the whole catalog in one pass, no checkpoints
+    public void write(boolean csv, WritableByteChannel channel) throws IOException {
+        write(csv, null, true, channel, () -> false, (records, bytes, lastId) -> { });
+    }
+
+    private boolean write(boolean csv, String after, boolean header, WritableByteChannel channel, BooleanSupplier stop,
+            Progress progress) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferBytes);
+        StringBuilder row = new StringBuilder(256);
+        long bytes = 0;
+        long records = 0;
+        String lastId = after;
+        if (csv && header) {
+            Csv.appendHeader(row);
+            bytes += put(buffer, row.toString().getBytes(StandardCharsets.UTF_8), channel);
+        }
+
+        Query query = after == null ? new Query() : new Query(after(after));
+        query.with(Sort.by("_id"));
+        try (Stream<Product> products = mongoTemplate.stream(query, Product.class)) {
+            Iterator<Product> it = products.iterator();
+            while (it.hasNext()) {
+                Product product = it.next();
+                lastId = product.getId();
+                byte[] record;
+                if (csv) {
+                    row.setLength(0);
+                    Csv.appendRow(row, product);
+                    record = row.toString().getBytes(StandardCharsets.UTF_8);
+                } else {
+                    record = jsonMapper.writeValueAsBytes(product);
+                }
+                bytes += put(buffer, record, channel);
+                if (!csv) {
+                    bytes += put(buffer, NEWLINE, channel);
+                }
+                if (++records == checkpointRecords) {
+                    drain(buffer, channel);
+                    progress.written(records, bytes, lastId);
+                    records = 0;
+                    bytes = 0;
+                    if (stop.getAsBoolean()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        drain(buffer, channel);
+        progress.written(records, bytes, lastId);
+        return true;
+    }
+
+    // Keyset on _id like the product listing: strings sort before ObjectIds and a range only matches its own
+    // BSON type, so after a string id the ObjectIds follow as well
+    static Criteria after(String lastId) {
+        if (ObjectId.isValid(lastId)) {
+            return where("_id").gt(lastId);
+        }
+        return new Criteria().orOperator(where("_id").gt(lastId), where("_id").type(JsonSchemaObject.Type.objectIdType()));
+    }
+
+    private static int put(ByteBuffer buffer, byte[] bytes, WritableByteChannel channel) throws IOException {
+        int from = 0;
+        while (from < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain(buffer, channel);
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - from);
+            buffer.put(bytes, from, length);
+            from += length;
+        }
+        return bytes.length;
+    }
+
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private interface Progress {
+        void written(long records, long bytes, String lastId);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.inclassassignment.catalog;
+
+import com.example.inclassassignment.dto.BulkItemError;
+import com.example.inclassassignment.dto.BulkResult;
+import com.example.inclassassignment.model.CatalogJob;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.service.ProductService;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+// CSV/NDJSON import: this thread parses records into batches, a writer upserts them and checkpoints the byte
+// offset, through a bounded queue. Records without an id get one derived from the job and record number,
+// so a batch replayed after a crash overwrites rather than duplicates.
+@Component
+public class CatalogImporter {
+
+    private static final Batch END = new Batch(0);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    @Qualifier("catalogTaskExecutor")
+    private TaskExecutor executor;
+
+    @Value("${app.catalog.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.catalog.queue-batches:4}")
+    private int queueBatches;
+
+    @Value("${app.catalog.max-record-bytes:1048576}")
+    private int maxRecordBytes;
+
+    @Value("${app.catalog.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    // Runs from the job's checkpoint until the file is consumed (true) or stop returns true between batches (false)
+    public boolean run(CatalogJob job, Path file, BooleanSupplier stop, Consumer<CatalogJob> checkpoint) throws IOException, InterruptedException {
+        boolean csv = "CSV".equals(job.getFormat());
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueBatches);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> write(job, queue, checkpoint), executor);
+        boolean finished;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(job.getOffset());
+            RecordReader reader = new RecordReader(channel, job.getOffset(), csv, maxRecordBytes);
+            List<String> columns = job.getColumns();
+            if (csv && columns == null) {
+                String header = reader.next();
+                columns = header == null ? Csv.COLUMNS : Csv.header(header);
+                job.setColumns(columns);
+            }
+
+            long record = job.getRecords();
+            Batch batch = new Batch(batchSize);
+            String line;
+            while ((line = reader.next()) != null) {
+                long number = record++;
+                try {
+                    Product product = csv ? Csv.toProduct(columns, Csv.split(line)) : jsonMapper.readValue(line, Product.class);
+                    if (product.getId() == null || product.getId().isBlank()) {
+                        product.setId(recordId(job, number));
+                    }
+                    batch.products.add(product);
+                    batch.records.add(number);
+                } catch (RuntimeException e) {
+                    batch.parseErrors.add(new BulkItemError(number, null, "Invalid record: " + e.getMessage()));
+                }
+                if (batch.products.size() + batch.parseErrors.size() == batchSize) {
+                    batch.endOffset = reader.offset();
+                    batch.endRecord = record;
+                    put(queue, batch, writer);
+                    batch = new Batch(batchSize);
+                    if (stop.getAsBoolean()) {
+                        break;
+                    }
+                }
+            }
+            finished = line == null;
+            // The last, possibly empty, batch also checkpoints the end of the file
+            batch.endOffset = reader.offset();
+            batch.endRecord = record;
+            put(queue, batch, writer);
+        } finally {
+            if (!writer.isDone()) {
+                put(queue, END, writer);
+            }
+            // Whatever happened, the writer has stopped checkpointing before this returns
+            writer.handle((result, error) -> null).join();
+        }
+        writer.join();
+        return finished;
+    }
+
+    // A full queue means the writer is behind; wait for it unless it has failed
+    private static void put(BlockingQueue<Batch> queue, Batch batch, CompletableFuture<Void> writer) throws InterruptedException {
+        while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                writer.join();
+                return;
+            }
+        }
+    }
+
+    private void write(CatalogJob job, BlockingQueue<Batch> queue, Consumer<CatalogJob> checkpoint) {
+        try {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch == END) {
+                    return;
+                }
+                long failed = batch.parseErrors.size();
+                batch.parseErrors.forEach(error -> report(job, error));
+                if (!batch.products.isEmpty()) {
+                    BulkResult result = productService.upsertProducts(batch.products.iterator());
+                    for (BulkItemError error : result.getErrors()) {
+                        report(job, new BulkItemError(batch.records.get((int) error.getIndex()), error.getId(), error.getError()));
+                    }
+                    failed += result.getFailed();
+                    job.setSucceeded(job.getSucceeded() + result.getSucceeded());
+                }
+                job.setFailed(job.getFailed() + failed);
+                job.setOffset(batch.endOffset);
+                job.setRecords(batch.endRecord);
+                checkpoint.accept(job);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Catalog import writer interrupted", e);
+        }
+    }
+
+    private void report(CatalogJob job, BulkItemError error) {
+        if (job.getErrors().size() < maxReportedErrors) {
+            job.getErrors().add(error);
+        }
+    }
+
+    // Job start time in seconds followed by the record number
+    static String recordId(CatalogJob job, long record) {
+        ByteBuffer bytes = ByteBuffer.allocate(12);
+        bytes.putInt((int) job.getStartedAt().getEpochSecond());
+        bytes.putLong(record);
+        return new ObjectId(bytes.array()).toHexString();
+    }
+
+    private static class Batch {
+        final List<Product> products;
+        final List<Long> records; // Record number of each product
+        final List<BulkItemError> parseErrors = new ArrayList<>();
+        long endOffset;
+        long endRecord;
+
+        Batch(int size) {
+            products = new ArrayList<>(size);
+            records = new ArrayList<>(size);
+        }
+    }
+}
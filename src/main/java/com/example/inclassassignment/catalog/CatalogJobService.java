@@ -0,0 +1,207 @@
+package com.example.inclassassignment.catalog;
+
+import com.example.inclassassignment.dto.CatalogJobRequest;
+import com.example.inclassassignment.model.CatalogJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Starts, stops and resumes catalog imports and exports in the background; job state lives in catalog_jobs
+@Service
+public class CatalogJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogJobService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CatalogImporter catalogImporter;
+
+    @Autowired
+    private CatalogExporter catalogExporter;
+
+    @Autowired
+    @Qualifier("catalogTaskExecutor")
+    private TaskExecutor executor;
+
+    @Value("${app.catalog.directory:catalog}")
+    private String directory;
+
+    @Value("${app.catalog.max-running-jobs:1}")
+    private int maxRunningJobs;
+
+    // Stop flags of the jobs running in this instance
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+
+    public CatalogJob startImport(CatalogJobRequest request) {
+        Path file = resolve(request.getFile());
+        if (!Files.isRegularFile(file)) {
+            throw new RuntimeException("File not found: " + request.getFile());
+        }
+        return start("IMPORT", request);
+    }
+
+    public CatalogJob startExport(CatalogJobRequest request) {
+        resolve(request.getFile());
+        return start("EXPORT", request);
+    }
+
+    public Optional<CatalogJob> getJob(String jobId) {
+        return Optional.ofNullable(mongoTemplate.findById(jobId, CatalogJob.class));
+    }
+
+    // Continues a stopped or failed job, or one left RUNNING by an instance that went away, from its checkpoint
+    public CatalogJob resume(String jobId) {
+        CatalogJob job = getJob(jobId).orElseThrow(() -> new RuntimeException("Job not found"));
+        if ("COMPLETED".equals(job.getStatus()) || running.containsKey(jobId)) {
+            throw new RuntimeException("Job cannot be resumed in status: " + job.getStatus());
+        }
+        job.setStatus("RUNNING");
+        job.setError(null);
+        job.setFinishedAt(null);
+        return launch(job);
+    }
+
+    // The job stops at its next checkpoint and can then be resumed
+    public CatalogJob stop(String jobId) {
+        AtomicBoolean stop = running.get(jobId);
+        if (stop == null) {
+            throw new RuntimeException("Job is not running");
+        }
+        stop.set(true);
+        return getJob(jobId).orElseThrow(() -> new RuntimeException("Job not found"));
+    }
+
+    private static String format(String format, String file) {
+        if (format != null && !format.isBlank()) {
+            String upper = format.toUpperCase(Locale.ROOT);
+            if (!upper.equals("CSV") && !upper.equals("NDJSON")) {
+                throw new RuntimeException("Format must be CSV or NDJSON");
+            }
+            return upper;
+        }
+        String name = file == null ? "" : file.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return "CSV";
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return "NDJSON";
+        }
+        throw new RuntimeException("Format must be CSV or NDJSON");
+    }
+
+    private CatalogJob start(String type, CatalogJobRequest request) {
+        Instant now = Instant.now();
+        CatalogJob job = new CatalogJob();
+        job.setType(type);
+        job.setFormat(format(request.getFormat(), request.getFile()));
+        job.setFile(request.getFile());
+        job.setStatus("RUNNING");
+        job.setStartedAt(now);
+        job.setUpdatedAt(now);
+        return launch(job);
+    }
+
+    // Returns the job as saved; the instance passed in belongs to the worker from here on
+    private synchronized CatalogJob launch(CatalogJob job) {
+        if (running.size() >= maxRunningJobs) {
+            throw new RuntimeException("Too many catalog jobs running");
+        }
+        job.setUpdatedAt(Instant.now());
+        mongoTemplate.save(job);
+        AtomicBoolean stop = new AtomicBoolean();
+        running.put(job.getId(), stop);
+        try {
+            executor.execute(() -> execute(job, stop));
+        } catch (RuntimeException e) {
+            running.remove(job.getId());
+            finish(job, "FAILED", e.getMessage());
+            throw e;
+        }
+        return getJob(job.getId()).orElseThrow(() -> new RuntimeException("Job not found"));
+    }
+
+    private void execute(CatalogJob job, AtomicBoolean stop) {
+        long start = System.nanoTime();
+        long activeMillis = job.getActiveMillis();
+        try {
+            Path file = resolve(job.getFile());
+            boolean finished;
+            if ("IMPORT".equals(job.getType())) {
+                finished = catalogImporter.run(job, file, stop::get, j -> checkpoint(j, activeMillis, start));
+            } else {
+                Files.createDirectories(file.getParent());
+                finished = catalogExporter.run(job, file, stop::get, j -> checkpoint(j, activeMillis, start));
+            }
+            job.setActiveMillis(activeMillis + (System.nanoTime() - start) / 1_000_000);
+            finish(job, finished ? "COMPLETED" : "STOPPED", null);
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Catalog job {} failed at record {}", job.getId(), job.getRecords(), e);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            job.setActiveMillis(activeMillis + (System.nanoTime() - start) / 1_000_000);
+            finish(job, "FAILED", cause.getMessage());
+        } finally {
+            running.remove(job.getId());
+        }
+    }
+
+    private void checkpoint(CatalogJob job, long activeMillis, long start) {
+        job.setActiveMillis(activeMillis + (System.nanoTime() - start) / 1_000_000);
+        job.setUpdatedAt(Instant.now());
+        throughput(job);
+        mongoTemplate.save(job);
+    }
+
+    private void finish(CatalogJob job, String status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setUpdatedAt(Instant.now());
+        job.setFinishedAt(job.getUpdatedAt());
+        throughput(job);
+        mongoTemplate.save(job);
+        log.info("Catalog {} {} {}: {} records ({} ok, {} failed), {} MB in {} ms, {} records/s, {} MB/s",
+            job.getType().toLowerCase(Locale.ROOT), job.getId(), status, job.getRecords(), job.getSucceeded(),
+            job.getFailed(), String.format("%.1f", job.getOffset() / 1e6), job.getActiveMillis(),
+            String.format("%.0f", job.getRecordsPerSecond()), String.format("%.1f", job.getMegabytesPerSecond()));
+    }
+
+    // Rates over the running time of all attempts, so stopped time between a stop and a resume is not counted
+    private static void throughput(CatalogJob job) {
+        double seconds = Math.max(job.getActiveMillis(), 1) / 1000.0;
+        job.setRecordsPerSecond(job.getRecords() / seconds);
+        job.setMegabytesPerSecond(job.getOffset() / 1e6 / seconds);
+    }
+
+    // Files are only read and written inside app.catalog.directory
+    private Path resolve(String file) {
+        if (file == null || file.isBlank()) {
+            throw new RuntimeException("File is required");
+        }
+        Path base = Paths.get(directory).toAbsolutePath().normalize();
+        Path path = base.resolve(file).normalize();
+        if (!path.startsWith(base) || path.equals(base)) {
+            throw new RuntimeException("File must be inside the catalog directory");
+        }
+        return path;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.inclassassignment.catalog;
+
+import com.example.inclassassignment.model.Money;
+import com.example.inclassassignment.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// RFC 4180 style product rows: comma separated, fields with commas, quotes or newlines quoted, quotes doubled
+final class Csv {
+
+    static final List<String> COLUMNS = List.of("id", "name", "description", "price", "stock");
+
+    private Csv() {
+    }
+
+    static List<String> split(String record) {
+        List<String> fields = new ArrayList<>(COLUMNS.size());
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static List<String> header(String record) {
+        List<String> columns = new ArrayList<>();
+        for (String column : split(record)) {
+            columns.add(column.trim().toLowerCase(Locale.ROOT));
+        }
+        if (!columns.contains("name") || !columns.contains("price") || !columns.contains("stock")) {
+            throw new IllegalArgumentException("CSV header must have name, price and stock columns: " + record);
+        }
+        return columns;
+    }
+
+    // Unknown columns are ignored; empty id, description, price or stock fields are treated as missing
+    static Product toProduct(List<String> columns, List<String> fields) {
+        if (fields.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " fields, found " + fields.size());
+        }
+        Product product = new Product();
+        for (int i = 0; i < columns.size(); i++) {
+            String value = fields.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (columns.get(i)) {
+                case "id" -> product.setId(value);
+                case "name" -> product.setName(value);
+                case "description" -> product.setDescription(value);
+                case "price" -> product.setPrice(Money.toMinor(new BigDecimal(value.trim())));
+                case "stock" -> product.setStock(Integer.valueOf(value.trim()));
+                default -> {
+                }
+            }
+        }
+        return product;
+    }
+
+    static void appendHeader(StringBuilder out) {
+        out.append(String.join(",", COLUMNS)).append('\n');
+    }
+
+    static void appendRow(StringBuilder out, Product product) {
+        appendField(out, product.getId()).append(',');
+        appendField(out, product.getName()).append(',');
+        appendField(out, product.getDescription()).append(',');
+        if (product.getPrice() != null) {
+            out.append(Money.toDecimal(product.getPrice()).toPlainString());
+        }
+        out.append(',');
+        if (product.getStock() != null) {
+            out.append(product.getStock());
+        }
+        out.append('\n');
+    }
+
+    private static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            return out.append(value);
+        }
+        return out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.inclassassignment.catalog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Splits a channel into newline-terminated records and tracks the byte offset past each one, so an import
+// can resume at a record boundary. In CSV mode newlines inside quoted fields do not end a record.
+class RecordReader {
+
+    private final ReadableByteChannel channel;
+    private final boolean csv;
+    private final int maxRecordBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private byte[] record = new byte[1024];
+    private int length;
+    private long offset;
+    private boolean endOfInput;
+
+    RecordReader(ReadableByteChannel channel, long startOffset, boolean csv, int maxRecordBytes) {
+        this.channel = channel;
+        this.offset = startOffset;
+        this.csv = csv;
+        this.maxRecordBytes = maxRecordBytes;
+        buffer.flip();
+    }
+
+    // Returns the next non-blank record without its line terminator, or null at the end of the input
+    String next() throws IOException {
+        while (true) {
+            String line = readRecord();
+            if (line == null || !line.isBlank()) {
+                return line;
+            }
+        }
+    }
+
+    // Offset of the first byte after the last record returned
+    long offset() {
+        return offset;
+    }
+
+    private String readRecord() throws IOException {
+        length = 0;
+        boolean quoted = false;
+        long consumed = 0;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                if (endOfInput || !fill()) {
+                    if (consumed == 0) {
+                        return null;
+                    }
+                    // Last record without a trailing newline
+                    offset += consumed;
+                    return decode();
+                }
+            }
+            byte b = buffer.get();
+            consumed++;
+            if (b == '\n' && !quoted) {
+                offset += consumed;
+                return decode();
+            }
+            if (b == '"' && csv) {
+                quoted = !quoted;
+            }
+            append(b);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        buffer.flip();
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        return true;
+    }
+
+    private void append(byte b) {
+        if (length == record.length) {
+            if (length >= maxRecordBytes) {
+                throw new IllegalStateException("Record at byte " + offset + " is longer than " + maxRecordBytes + " bytes");
+            }
+            record = Arrays.copyOf(record, Math.min(maxRecordBytes, length * 2));
+        }
+        record[length++] = b;
+    }
+
+    private String decode() {
+        int end = length > 0 && record[length - 1] == '\r' ? length - 1 : length;
+        return new String(record, 0, end, StandardCharsets.UTF_8);
+    }
+}
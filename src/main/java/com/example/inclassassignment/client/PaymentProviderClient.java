@@ -0,0 +1,146 @@
+package com.example.inclassassignment.client;
+
+import com.example.inclassassignment.dto.ProviderChargeRequest;
+import com.example.inclassassignment.dto.ProviderChargeResponse;
+import com.example.inclassassignment.model.Money;
+import com.example.inclassassignment.model.Payment;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Non-blocking payment provider client on the shared HttpClient. Calls past max-concurrent are rejected
+// at once; connection errors, timeouts, 429 and 5xx are retried with jittered backoff under the same
+// Idempotency-Key, holding the bulkhead permit throughout.
+@Component
+public class PaymentProviderClient implements MeterBinder {
+
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 500, 502, 503, 504);
+
+    @Autowired
+    private HttpClient outboundHttpClient;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Value("${app.payments.provider.url:}")
+    private String baseUrl;
+
+    @Value("${app.payments.provider.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${app.payments.provider.max-concurrent:50}")
+    private int maxConcurrent;
+
+    @Value("${app.payments.provider.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.payments.provider.backoff:100ms}")
+    private Duration backoff;
+
+    @Value("${app.payments.provider.max-backoff:2s}")
+    private Duration maxBackoff;
+
+    private Semaphore bulkhead;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        bulkhead = new Semaphore(maxConcurrent);
+    }
+
+    // Without a provider URL payments are settled by the built-in mock
+    public boolean isEnabled() {
+        return baseUrl != null && !baseUrl.isBlank();
+    }
+
+    // Throws without calling the provider when the bulkhead is full; otherwise completes with the charge, or
+    // exceptionally on a non-retryable answer or once the attempts are used up
+    public CompletableFuture<ProviderChargeResponse> createCharge(Payment payment) {
+        if (!bulkhead.tryAcquire()) {
+            rejected.increment();
+            throw new RuntimeException("Payment provider is busy");
+        }
+        try {
+            ProviderChargeRequest body = new ProviderChargeRequest(
+                payment.getPaymentId(), payment.getOrderId(), Money.toDecimal(payment.getAmount()));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/charges"))
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .header("Idempotency-Key", payment.getPaymentId())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(body)))
+                .build();
+            return send(request, 1)
+                .thenApply(this::toCharge)
+                .whenComplete((charge, error) -> bulkhead.release());
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            throw e;
+        }
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest request, int attempt) {
+        return outboundHttpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+            .handle((response, error) -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                boolean retry = cause != null ? cause instanceof IOException : RETRYABLE_STATUSES.contains(response.statusCode());
+                if (!retry || attempt >= maxAttempts) {
+                    return cause == null
+                        ? CompletableFuture.completedFuture(response)
+                        : CompletableFuture.<HttpResponse<byte[]>>failedFuture(cause);
+                }
+                retries.increment();
+                Executor delay = CompletableFuture.delayedExecutor(backoff(attempt), TimeUnit.MILLISECONDS);
+                return CompletableFuture.runAsync(() -> { }, delay).thenCompose(ignored -> send(request, attempt + 1));
+            })
+            .thenCompose(Function.identity());
+    }
+
+    // Full jitter: uniform between zero and the exponential cap, so clients that failed together retry apart
+    private long backoff(int attempt) {
+        long cap = Math.min(maxBackoff.toMillis(), backoff.toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private ProviderChargeResponse toCharge(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new RuntimeException("Payment provider returned " + response.statusCode());
+        }
+        return jsonMapper.readValue(response.body(), ProviderChargeResponse.class);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("payment.provider.in.flight", bulkhead, b -> maxConcurrent - b.availablePermits())
+            .description("Payment provider calls holding a bulkhead permit")
+            .register(registry);
+        FunctionCounter.builder("payment.provider.retries", retries, LongAdder::sum)
+            .description("Payment provider requests retried after an error or retryable status")
+            .register(registry);
+        FunctionCounter.builder("payment.provider.rejected", rejected, LongAdder::sum)
+            .description("Payment provider calls rejected because the bulkhead was full")
+            .register(registry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.inclassassignment.config;
+
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.Payment;
+import com.example.inclassassignment.model.Product;
+import com.mongodb.client.model.Filters;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rewrites documents stored in older layouts: amounts held as doubles become whole minor units in a long,
+// and order items drop their own id and the order id. One server-side pipeline update per collection;
+// only documents whose amount is still a double match, so it is idempotent and safe to run on every start.
+// Existing UUID ids are kept.
+@Component
+public class DocumentMigration {
+    
+    private static final Logger log = LoggerFactory.getLogger(DocumentMigration.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${app.migrations.run-on-startup:true}")
+    private boolean runOnStartup;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!runOnStartup) {
+            return;
+        }
+        try {
+            migrate().forEach((collection, migrated) -> {
+                if (migrated > 0) {
+                    log.info("Migrated {} documents in {} to the current layout", migrated, collection);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Document migration failed", e);
+        }
+    }
+    
+    // Returns the number of migrated documents per collection
+    public Map<String, Long> migrate() {
+        Map<String, Long> migrated = new LinkedHashMap<>();
+        migrated.put("orders", update(Order.class, "totalAmount", new Document()
+            .append("totalAmount", toMinor("$totalAmount"))
+            .append("items", new Document("$map", new Document()
+                .append("input", "$items")
+                .append("as", "item")
+                .append("in", new Document()
+                    .append("productId", "$$item.productId")
+                    .append("quantity", "$$item.quantity")
+                    .append("price", toMinor("$$item.price")))))));
+        migrated.put("products", update(Product.class, "price", new Document("price", toMinor("$price"))));
+        migrated.put("payments", update(Payment.class, "amount", new Document("amount", toMinor("$amount"))));
+        return migrated;
+    }
+    
+    private long update(Class<?> type, String amountField, Document set) {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(type))
+            .updateMany(Filters.type(amountField, "double"), List.of(new Document("$set", set)))
+            .getModifiedCount();
+    }
+    
+    private static Document toMinor(String amount) {
+        return new Document("$toLong", new Document("$round", List.of(new Document("$multiply", List.of(amount, 100)), 0)));
+    }
+}
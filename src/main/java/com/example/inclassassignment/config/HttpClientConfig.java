@@ -0,0 +1,32 @@
+package com.example.inclassassignment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class HttpClientConfig {
+    
+    // One client for all outbound calls: it keeps connections alive and reuses them per host
+    // (idle ones close after jdk.httpclient.keepalive.timeout), instead of a new connection per call.
+    @Bean
+    public HttpClient outboundHttpClient(
+            Environment environment,
+            @Value("${app.http.client.connect-timeout:2s}") Duration connectTimeout) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NEVER);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Run the JDK client's I/O callbacks on virtual threads as well
+            builder.executor(new VirtualThreadTaskExecutor("http-client-"));
+        }
+        return builder.build();
+    }
+}
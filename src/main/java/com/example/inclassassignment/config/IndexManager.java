@@ -0,0 +1,160 @@
+package com.example.inclassassignment.config;
+
+import com.example.inclassassignment.dto.IndexReport;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Owns the indexes declared on the @Document models (@Indexed, @CompoundIndex, @TextIndexed):
+// creates missing ones at startup and reports missing, undeclared and unused indexes on demand.
+@Component
+public class IndexManager {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexManager.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${app.indexes.manage-on-startup:true}")
+    private boolean manageOnStartup;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!manageOnStartup) {
+            return;
+        }
+        try {
+            for (IndexReport report : ensureIndexes(documentTypes())) {
+                if (!report.getCreated().isEmpty()) {
+                    log.info("Created indexes on {}: {}", report.getCollection(), report.getCreated());
+                }
+                if (!report.getUndeclared().isEmpty()) {
+                    log.warn("Indexes on {} not declared on the model: {}", report.getCollection(), report.getUndeclared());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Index verification failed", e);
+        }
+    }
+
+    public List<IndexReport> ensureIndexes(Collection<Class<?>> types) {
+        return inspect(types, true);
+    }
+
+    public List<IndexReport> verifyIndexes() {
+        return inspect(documentTypes(), false);
+    }
+
+    // All @Document types known to the mapping context (Boot registers every scanned entity up front)
+    public List<Class<?>> documentTypes() {
+        return mongoTemplate.getConverter().getMappingContext().getPersistentEntities().stream()
+            .filter(entity -> entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class))
+            .map(MongoPersistentEntity::getType)
+            .collect(Collectors.toList());
+    }
+
+    private List<IndexReport> inspect(Collection<Class<?>> types, boolean create) {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        List<IndexReport> reports = new ArrayList<>();
+
+        for (Class<?> type : types) {
+            String collection = mongoTemplate.getCollectionName(type);
+            IndexReport report = new IndexReport(collection);
+            List<Document> existing = mongoTemplate.getCollection(collection).listIndexes().into(new ArrayList<>());
+
+            List<Document> declaredKeys = new ArrayList<>();
+            for (IndexDefinition definition : resolver.resolveIndexFor(type)) {
+                Document keys = definition.getIndexKeys();
+                declaredKeys.add(keys);
+                if (existing.stream().anyMatch(index -> sameKeys(keys, index.get("key", Document.class)))) {
+                    continue;
+                }
+                if (create) {
+                    mongoTemplate.indexOps(collection).createIndex(definition);
+                    report.getCreated().add(indexName(definition));
+                } else {
+                    report.getMissing().add(indexName(definition));
+                }
+            }
+
+            for (Document index : existing) {
+                String name = index.getString("name");
+                Document keys = index.get("key", Document.class);
+                if (!"_id_".equals(name) && declaredKeys.stream().noneMatch(declared -> sameKeys(declared, keys))) {
+                    report.getUndeclared().add(name);
+                }
+            }
+
+            if (!create) {
+                report.setUnused(unusedIndexes(collection));
+            }
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    // Access counters from $indexStats reset when mongod restarts, so this is only meaningful on a warm server
+    private List<String> unusedIndexes(String collection) {
+        List<String> unused = new ArrayList<>();
+        List<Document> stats = mongoTemplate.getCollection(collection)
+            .aggregate(List.of(new Document("$indexStats", new Document())))
+            .into(new ArrayList<>());
+        for (Document stat : stats) {
+            Document accesses = stat.get("accesses", Document.class);
+            Number ops = accesses == null ? null : (Number) accesses.get("ops");
+            if (!"_id_".equals(stat.getString("name")) && ops != null && ops.longValue() == 0) {
+                unused.add(stat.getString("name"));
+            }
+        }
+        return unused;
+    }
+
+    private static boolean sameKeys(Document declared, Document existing) {
+        if (existing == null) {
+            return false;
+        }
+        // Text indexes are stored under the internal _fts/_ftsx keys
+        if (declared.containsValue("text")) {
+            return existing.containsKey("_fts");
+        }
+        if (declared.size() != existing.size()) {
+            return false;
+        }
+        List<String> declaredFields = new ArrayList<>(declared.keySet());
+        List<String> existingFields = new ArrayList<>(existing.keySet());
+        for (int i = 0; i < declaredFields.size(); i++) {
+            Object d = declared.get(declaredFields.get(i));
+            Object e = existing.get(existingFields.get(i));
+            if (!declaredFields.get(i).equals(existingFields.get(i)) || !sameDirection(d, e)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameDirection(Object declared, Object existing) {
+        if (declared instanceof Number d && existing instanceof Number e) {
+            return d.intValue() == e.intValue();
+        }
+        return String.valueOf(declared).equals(String.valueOf(existing));
+    }
+
+    private static String indexName(IndexDefinition definition) {
+        String name = definition.getIndexOptions().getString("name");
+        return name != null ? name : definition.getIndexKeys().toJson();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.inclassassignment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.mongodb.autoconfigure.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoConfig {
+    
+    // With virtual threads the request side no longer caps concurrency, so the connection pool does:
+    // size it for the database, and fail fast instead of queueing unbounded waiters when it is exhausted.
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+            @Value("${app.mongo.pool.max-size:100}") int maxSize,
+            @Value("${app.mongo.pool.min-size:10}") int minSize,
+            @Value("${app.mongo.pool.max-connecting:4}") int maxConnecting,
+            @Value("${app.mongo.pool.max-wait:2s}") Duration maxWait) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+            .maxSize(maxSize)
+            .minSize(minSize)
+            .maxConnecting(maxConnecting)
+            .maxWaitTime(maxWait.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.inclassassignment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.SimpleAsyncTaskSchedulerBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+    
+    // Declaring our own TaskScheduler makes Boot back off from its default one, so recreate it here
+    // under the name @Scheduled methods look for; it honours the spring.task.scheduling.* properties.
+    @Bean
+    public TaskScheduler taskScheduler(
+            Environment environment,
+            ThreadPoolTaskSchedulerBuilder threadPoolBuilder,
+            SimpleAsyncTaskSchedulerBuilder simpleAsyncBuilder) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return simpleAsyncBuilder.build();
+        }
+        return threadPoolBuilder.build();
+    }
+    
+    // The executors below also make Boot back off from its applicationTaskExecutor, which @Async methods and
+    // MVC async requests (StreamingResponseBody) run on, so recreate it too from the spring.task.execution.* properties.
+    @Bean(name = { "applicationTaskExecutor", "taskExecutor" })
+    public AsyncTaskExecutor applicationTaskExecutor(
+            Environment environment,
+            ThreadPoolTaskExecutorBuilder threadPoolBuilder,
+            SimpleAsyncTaskExecutorBuilder simpleAsyncBuilder) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return simpleAsyncBuilder.build();
+        }
+        return threadPoolBuilder.build();
+    }
+    
+    // Settles mock payments after their simulated latency without holding a request thread.
+    // With spring.threads.virtual.enabled on Java 21+ each settlement runs on its own virtual thread.
+    @Bean
+    public TaskScheduler paymentSettlementScheduler(
+            Environment environment,
+            @Value("${app.payments.settlement.pool-size:4}") int poolSize) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("payment-settlement-");
+            scheduler.setTaskTerminationTimeout(10_000);
+            return scheduler;
+        }
+        
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("payment-settlement-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(10);
+        return scheduler;
+    }
+    
+    // Catalog imports and exports: each running import holds two threads (parser and writer), an export one.
+    // CatalogJobService admits max-running-jobs jobs, but a finished job's threads can still be on their way back
+    // to the pool when the next one starts; the queue holds a new job's tasks for that moment instead of rejecting them.
+    @Bean
+    public ThreadPoolTaskExecutor catalogTaskExecutor(@Value("${app.catalog.max-running-jobs:1}") int maxRunningJobs) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2 * maxRunningJobs);
+        executor.setMaxPoolSize(2 * maxRunningJobs);
+        executor.setQueueCapacity(2 * maxRunningJobs);
+        executor.setThreadNamePrefix("catalog-");
+        return executor;
+    }
+}
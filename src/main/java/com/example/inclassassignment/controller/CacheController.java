@@ -0,0 +1,30 @@
+package com.example.inclassassignment.controller;
+
+import com.example.inclassassignment.cache.CartSnapshotCache;
+import com.example.inclassassignment.cache.ProductCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private CartSnapshotCache cartSnapshotCache;
+    
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("products", productCache.stats());
+        response.put("carts", cartSnapshotCache.stats());
+        return ResponseEntity.ok(response);
+    }
+}
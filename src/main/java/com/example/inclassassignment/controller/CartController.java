@@ -1,6 +1,8 @@
 package com.example.inclassassignment.controller;
 
 import com.example.inclassassignment.dto.AddToCartRequest;
+import com.example.inclassassignment.dto.BulkAddToCartRequest;
+import com.example.inclassassignment.dto.BulkResult;
 import com.example.inclassassignment.dto.CartItemResponse;
 import com.example.inclassassignment.model.CartItem;
 import com.example.inclassassignment.service.CartService;
@@ -31,6 +33,17 @@ public class CartController {
         }
     }
     
+    // Partial success is reported per line in the result
+    @PostMapping("/add/bulk")
+    public ResponseEntity<BulkResult> addAllToCart(@RequestBody BulkAddToCartRequest request) {
+        try {
+            BulkResult result = cartService.addAllToCart(request);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
     @GetMapping("/{userId}")
     public ResponseEntity<List<CartItemResponse>> getCart(@PathVariable String userId) {
         try {
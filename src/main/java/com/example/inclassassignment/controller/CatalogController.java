@@ -0,0 +1,82 @@
+package com.example.inclassassignment.controller;
+
+import com.example.inclassassignment.catalog.CatalogExporter;
+import com.example.inclassassignment.catalog.CatalogJobService;
+import com.example.inclassassignment.dto.CatalogJobRequest;
+import com.example.inclassassignment.model.CatalogJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.channels.Channels;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/catalog")
+@CrossOrigin(origins = "*")
+public class CatalogController {
+    
+    @Autowired
+    private CatalogJobService catalogJobService;
+    
+    @Autowired
+    private CatalogExporter catalogExporter;
+    
+    @PostMapping("/import")
+    public ResponseEntity<CatalogJob> startImport(@RequestBody CatalogJobRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(catalogJobService.startImport(request));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
+    @PostMapping("/export")
+    public ResponseEntity<CatalogJob> startExport(@RequestBody CatalogJobRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(catalogJobService.startExport(request));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<CatalogJob> getJob(@PathVariable String jobId) {
+        Optional<CatalogJob> job = catalogJobService.getJob(jobId);
+        return job.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping("/jobs/{jobId}/resume")
+    public ResponseEntity<CatalogJob> resume(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(catalogJobService.resume(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    @PostMapping("/jobs/{jobId}/stop")
+    public ResponseEntity<CatalogJob> stop(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(catalogJobService.stop(jobId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    // Streams the whole catalog in the response instead of to a file
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean csv = format.equalsIgnoreCase("csv");
+        if (!csv && !format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        StreamingResponseBody body = out -> catalogExporter.write(csv, Channels.newChannel(out));
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(csv ? "text/csv" : "application/x-ndjson"))
+            .body(body);
+    }
+}
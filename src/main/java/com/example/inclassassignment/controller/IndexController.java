@@ -0,0 +1,39 @@
+package com.example.inclassassignment.controller;
+
+import com.example.inclassassignment.config.IndexManager;
+import com.example.inclassassignment.dto.IndexReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/indexes")
+@CrossOrigin(origins = "*")
+public class IndexController {
+    
+    @Autowired
+    private IndexManager indexManager;
+    
+    // Missing, undeclared and unused (no recorded accesses) indexes per collection
+    @GetMapping
+    public ResponseEntity<List<IndexReport>> verifyIndexes() {
+        try {
+            return ResponseEntity.ok(indexManager.verifyIndexes());
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    // Creates any declared index that is missing
+    @PostMapping
+    public ResponseEntity<List<IndexReport>> ensureIndexes() {
+        try {
+            return ResponseEntity.ok(indexManager.ensureIndexes(indexManager.documentTypes()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
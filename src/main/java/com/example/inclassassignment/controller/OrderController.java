@@ -20,10 +20,10 @@ public class OrderController {
     private OrderService orderService;
     
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody CreateOrderRequest request) {
+    public ResponseEntity<OrderResponse> createOrder(@RequestBody CreateOrderRequest request) {
         try {
             Order order = orderService.createOrder(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(order);
+            return ResponseEntity.status(HttpStatus.CREATED).body(orderService.toResponse(order));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
@@ -39,10 +39,22 @@ public class OrderController {
         }
     }
     
+    @PostMapping("/{orderId}/cancel")
+    public ResponseEntity<OrderResponse> cancelOrder(@PathVariable String orderId) {
+        try {
+            return ResponseEntity.ok(orderService.cancelOrder(orderId));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(@PathVariable String userId) {
+    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<OrderResponse> orders = orderService.getOrdersByUserId(userId);
+            List<OrderResponse> orders = orderService.getOrdersByUserId(userId, page, size);
             return ResponseEntity.ok(orders);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
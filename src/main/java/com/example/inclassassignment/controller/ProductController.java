@@ -1,23 +1,38 @@
 package com.example.inclassassignment.controller;
 
+import com.example.inclassassignment.dto.BulkResult;
+import com.example.inclassassignment.dto.ProductPageResponse;
 import com.example.inclassassignment.model.Product;
 import com.example.inclassassignment.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "*")
 public class ProductController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+    
     @Autowired
     private ProductService productService;
     
+    @Autowired
+    private JsonMapper jsonMapper;
+    
     @PostMapping
     public ResponseEntity<Product> createProduct(@RequestBody Product product) {
         try {
@@ -28,10 +43,44 @@ public class ProductController {
         }
     }
     
+    // Accepts a JSON array or NDJSON; both are read and written in chunks as the body streams in
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, NDJSON })
+    public ResponseEntity<BulkResult> bulkUpsertProducts(InputStream body) {
+        try (MappingIterator<Product> products = jsonMapper.readerFor(Product.class).readValues(body)) {
+            return ResponseEntity.ok(productService.upsertProducts(products));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<ProductPageResponse> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            ProductPageResponse page = productService.getProductPage(cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+    
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = out -> {
+            try (Stream<Product> products = productService.streamAllProducts()) {
+                Iterator<Product> it = products.iterator();
+                int written = 0;
+                while (it.hasNext()) {
+                    out.write(jsonMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                    if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                        out.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
     
     @GetMapping("/{id}")
@@ -42,8 +91,11 @@ public class ProductController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String q) {
-        List<Product> products = productService.searchProducts(q);
+    public ResponseEntity<List<Product>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        List<Product> products = productService.searchProducts(q, page, size);
         return ResponseEntity.ok(products);
     }
     
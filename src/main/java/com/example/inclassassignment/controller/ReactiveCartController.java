@@ -0,0 +1,28 @@
+package com.example.inclassassignment.controller;
+
+import com.example.inclassassignment.dto.CartItemResponse;
+import com.example.inclassassignment.service.ReactiveCartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reactive/cart")
+@CrossOrigin(origins = "*")
+public class ReactiveCartController {
+    
+    @Autowired
+    private ReactiveCartService cartService;
+    
+    @GetMapping("/{userId}")
+    public Mono<ResponseEntity<List<CartItemResponse>>> getCart(@PathVariable String userId) {
+        return cartService.getCartByUserId(userId)
+            .collectList()
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.inclassassignment.controller;
+
+import com.example.inclassassignment.dto.OrderResponse;
+import com.example.inclassassignment.service.ReactiveOrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reactive/orders")
+@CrossOrigin(origins = "*")
+public class ReactiveOrderController {
+    
+    @Autowired
+    private ReactiveOrderService orderService;
+    
+    @GetMapping("/{orderId}")
+    public Mono<ResponseEntity<OrderResponse>> getOrderById(@PathVariable String orderId) {
+        return orderService.getOrderById(orderId)
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+    
+    @GetMapping("/user/{userId}")
+    public Mono<ResponseEntity<List<OrderResponse>>> getOrdersByUserId(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return orderService.getOrdersByUserId(userId, page, size)
+            .collectList()
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+    }
+}
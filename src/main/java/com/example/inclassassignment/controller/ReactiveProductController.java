@@ -0,0 +1,35 @@
+package com.example.inclassassignment.controller;
+
+import com.example.inclassassignment.dto.ProductPageResponse;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.service.ReactiveProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/reactive/products")
+@CrossOrigin(origins = "*")
+public class ReactiveProductController {
+    
+    @Autowired
+    private ReactiveProductService productService;
+    
+    @GetMapping
+    public Mono<ResponseEntity<ProductPageResponse>> getAllProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return productService.getProductPage(cursor, limit)
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build()));
+    }
+    
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Product>> getProductById(@PathVariable String id) {
+        return productService.getProductById(id)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.inclassassignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAddToCartRequest {
+    private String userId;
+    private List<CartLineRequest> items;
+}
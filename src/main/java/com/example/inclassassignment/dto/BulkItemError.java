@@ -0,0 +1,14 @@
+package com.example.inclassassignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemError {
+    private long index; // Position in the request, or record number in an import file
+    private String id; // Product id, when the item carried one
+    private String error;
+}
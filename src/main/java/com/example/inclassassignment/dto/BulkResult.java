@@ -0,0 +1,20 @@
+package com.example.inclassassignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkResult {
+    private int received;
+    private int succeeded;
+    private int failed;
+    private List<BulkItemError> errors = new ArrayList<>(); // One entry per rejected item, by position in the request
+    private long elapsedMillis;
+    private double itemsPerSecond;
+}
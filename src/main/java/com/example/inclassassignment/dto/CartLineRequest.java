@@ -0,0 +1,13 @@
+package com.example.inclassassignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineRequest {
+    private String productId;
+    private Integer quantity;
+}
@@ -0,0 +1,13 @@
+package com.example.inclassassignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogJobRequest {
+    private String file; // Relative to app.catalog.directory
+    private String format; // CSV or NDJSON; taken from the file extension when missing
+}
@@ -0,0 +1,23 @@
+package com.example.inclassassignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IndexReport {
+    private String collection;
+    private List<String> created = new ArrayList<>(); // Declared and created by this run
+    private List<String> missing = new ArrayList<>(); // Declared but not present
+    private List<String> undeclared = new ArrayList<>(); // Present but not declared on the model
+    private List<String> unused = new ArrayList<>(); // No accesses since the server started ($indexStats)
+    
+    public IndexReport(String collection) {
+        this.collection = collection;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -12,7 +13,7 @@ import java.util.List;
 public class OrderResponse {
     private String id;
     private String userId;
-    private Double totalAmount;
+    private BigDecimal totalAmount;
     private String status;
     private List<OrderItemResponse> items;
     private PaymentResponse payment;
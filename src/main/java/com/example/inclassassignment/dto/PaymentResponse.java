@@ -4,13 +4,15 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaymentResponse {
     private String id;
     private String orderId;
-    private Double amount;
+    private BigDecimal amount;
     private String status;
     private String paymentId;
 }
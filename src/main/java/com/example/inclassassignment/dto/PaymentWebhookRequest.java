@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaymentWebhookRequest {
+    private String eventId; // Provider event ID, used for deduplication when present
     private String orderId;
     private String status;
     private String paymentId;
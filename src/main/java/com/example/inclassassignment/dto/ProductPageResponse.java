@@ -0,0 +1,16 @@
+package com.example.inclassassignment.dto;
+
+import com.example.inclassassignment.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPageResponse {
+    private List<Product> items;
+    private String nextCursor; // null on the last page
+}
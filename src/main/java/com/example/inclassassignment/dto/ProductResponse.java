@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -11,6 +13,6 @@ public class ProductResponse {
     private String id;
     private String name;
     private String description;
-    private Double price;
+    private BigDecimal price;
     private Integer stock;
 }
@@ -0,0 +1,16 @@
+package com.example.inclassassignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderChargeRequest {
+    private String paymentId; // Our external payment ID, also sent as the Idempotency-Key header
+    private String orderId;
+    private BigDecimal amount;
+}
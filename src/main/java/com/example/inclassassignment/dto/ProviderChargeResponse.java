@@ -0,0 +1,13 @@
+package com.example.inclassassignment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProviderChargeResponse {
+    private String id; // Provider charge ID
+    private String status; // PENDING, SUCCESS, FAILED; PENDING charges settle by webhook
+}
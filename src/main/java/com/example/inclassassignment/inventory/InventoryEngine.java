@@ -0,0 +1,310 @@
+package com.example.inclassassignment.inventory;
+
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.OrderItem;
+import com.example.inclassassignment.model.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Opt-in in-memory inventory (app.inventory.engine.enabled): checkout reserves from striped counters and
+// stock reaches products.stock through a batched $inc. Orders carry an inventory marker so unapplied
+// decrements and releases are replayed on startup. Counters live in one JVM: run a single instance.
+// Reservations end with their order: stale orders are expired by OrderExpiryService (app.orders.expiry.after).
+@Component
+public class InventoryEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryEngine.class);
+
+    private static final List<String> RELEASED_STATUSES = List.of("FAILED", "EXPIRED", "CANCELLED");
+
+    // Write-back batch ids each product remembers. Only one batch is in flight at a time, so a retry or
+    // a replay after a crash always finds its own id here if the product applied it.
+    private static final int RECENT_BATCHES = 16;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Value("${app.inventory.engine.enabled:false}")
+    private boolean enabled;
+
+    // 0 means one stripe per available processor
+    @Value("${app.inventory.stripes:0}")
+    private int stripes;
+
+    @Value("${app.inventory.write-back.batch-size:1000}")
+    private int batchSize;
+
+    private final Map<String, StripedCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, List<OrderItem>> reservations = new ConcurrentHashMap<>();
+    private final Queue<StockChange> writeBack = new ConcurrentLinkedQueue<>();
+
+    // A batch whose write failed; retried as it is, under the same id, before anything newer
+    private List<StockChange> unwritten = new ArrayList<>();
+    private String unwrittenBatch;
+
+    @PostConstruct
+    public void init() {
+        if (stripes <= 0) {
+            stripes = Runtime.getRuntime().availableProcessors();
+        }
+        if (enabled) {
+            recover();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Takes stock for every line or none of them. Counters start from the products just read from Mongo
+    // the first time a SKU is touched; after that the counter is authoritative.
+    public void reserve(String orderId, List<OrderItem> items, Map<String, Product> products) {
+        List<OrderItem> taken = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            if (!counter(item.getProductId(), products.get(item.getProductId())).tryAcquire(item.getQuantity())) {
+                returnToCounters(taken);
+                throw new RuntimeException("Insufficient stock for product: " + item.getProductId());
+            }
+            taken.add(item);
+        }
+        reservations.put(orderId, items);
+    }
+
+    // The order is stored: schedule its decrement for write-back
+    public void commit(String orderId) {
+        List<OrderItem> items = reservations.get(orderId);
+        if (items != null) {
+            writeBack.add(new StockChange(orderId, items, -1));
+        }
+    }
+
+    // The order could not be stored: nothing was written, just give the stock back
+    public void cancel(String orderId) {
+        List<OrderItem> items = reservations.remove(orderId);
+        if (items != null) {
+            returnToCounters(items);
+        }
+    }
+
+    // Follows order status changes: PAID keeps the stock, failed or expired orders give it back
+    public void onOrderStatus(String orderId, String status) {
+        if (!enabled) {
+            return;
+        }
+        if ("PAID".equals(status)) {
+            reservations.remove(orderId);
+        } else if (RELEASED_STATUSES.contains(status)) {
+            release(orderId);
+        }
+    }
+
+    private void release(String orderId) {
+        List<OrderItem> items = reservations.remove(orderId);
+        if (items != null) {
+            returnToCounters(items);
+            writeBack.add(new StockChange(orderId, items, 1));
+        }
+    }
+
+    // Stock given back in Mongo for an order the engine never reserved (placed while it was off):
+    // counters already seeded from the old level take it back too
+    public void onStockRestored(List<OrderItem> items) {
+        if (enabled) {
+            returnToCounters(items);
+        }
+    }
+
+    // Sets the stock of a product to a new level. Applied to Mongo right away since restocks are rare
+    // and have no order to replay them from; returns false when the SKU is not tracked yet.
+    public boolean setStock(String productId, int stock) {
+        StripedCounter counter = counters.get(productId);
+        if (!enabled || counter == null) {
+            return false;
+        }
+        long delta = counter.adjust(stock - counter.available());
+        if (delta != 0) {
+            mongoTemplate.updateFirst(query(where("_id").is(productId)), new Update().inc("stock", delta), Product.class);
+            productCache.evict(productId);
+        }
+        return true;
+    }
+
+    public long available(String productId) {
+        StripedCounter counter = counters.get(productId);
+        return counter == null ? -1 : counter.available();
+    }
+
+    private StripedCounter counter(String productId, Product product) {
+        return counters.computeIfAbsent(productId, id -> new StripedCounter(stripes, product.getStock()));
+    }
+
+    private void returnToCounters(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            StripedCounter counter = counters.get(item.getProductId());
+            if (counter != null) {
+                counter.release(item.getQuantity());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.write-back.interval:100ms}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            while (writeBatch() == batchSize) {
+                // Keep draining while full batches are waiting
+            }
+        } catch (RuntimeException e) {
+            log.error("Inventory write-back failed; retrying on the next run", e);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (!unwritten.isEmpty() || !writeBack.isEmpty()) {
+            log.error("Shutting down with unwritten inventory changes; they are replayed from orders on the next start");
+        }
+    }
+
+    // Writes the batch that failed last time, or else the next one from the queue
+    synchronized int writeBatch() {
+        if (unwritten.isEmpty()) {
+            StockChange change;
+            while (unwritten.size() < batchSize && (change = writeBack.poll()) != null) {
+                unwritten.add(change);
+            }
+            if (unwritten.isEmpty()) {
+                return 0;
+            }
+            unwrittenBatch = new ObjectId().toHexString();
+        }
+        List<StockChange> batch = unwritten;
+        write(unwrittenBatch, batch);
+        unwritten = new ArrayList<>();
+        return batch.size();
+    }
+
+    // Stamps the orders with the batch id and the marker they move to, applies one unordered $inc per SKU
+    // guarded by that id, then sets the markers and clears the stamps. Any step may be retried or replayed
+    // after a crash: a product that already applied the batch no longer matches its guard.
+    private void write(String batchId, List<StockChange> batch) {
+        Map<String, Long> deltas = new HashMap<>();
+        Map<String, String> markers = new LinkedHashMap<>();
+        for (StockChange change : batch) {
+            for (OrderItem item : change.items) {
+                deltas.merge(item.getProductId(), (long) change.sign * item.getQuantity(), Long::sum);
+            }
+            // A decrement and a release of one order in the same batch net out to RELEASED
+            markers.put(change.orderId, change.sign < 0 ? "RESERVED" : "RELEASED");
+        }
+        Map<String, List<String>> byMarker = new HashMap<>();
+        markers.forEach((orderId, marker) -> byMarker.computeIfAbsent(marker, k -> new ArrayList<>()).add(orderId));
+
+        BulkOperations stampOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        byMarker.forEach((marker, orderIds) -> stampOps.updateMulti(query(where("_id").in(orderIds)),
+            new Update().set("inventoryBatch", batchId).set("inventoryNext", marker)));
+        stampOps.execute();
+
+        BulkOperations stockOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        int writes = 0;
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) {
+                stockOps.updateOne(query(where("_id").is(delta.getKey()).and("inventoryBatches").ne(batchId)),
+                    new Update().inc("stock", delta.getValue()).push("inventoryBatches").slice(-RECENT_BATCHES).each(batchId));
+                writes++;
+            }
+        }
+        if (writes > 0) {
+            stockOps.execute();
+        }
+
+        BulkOperations markerOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+        byMarker.forEach((marker, orderIds) -> markerOps.updateMulti(query(where("_id").in(orderIds)),
+            Update.update("inventory", marker).unset("inventoryBatch").unset("inventoryNext")));
+        markerOps.execute();
+
+        productCache.evictAll(deltas.keySet());
+    }
+
+    // Replays decrements and releases that were not written back before the last shutdown,
+    // then reloads the reservations of orders still awaiting payment
+    private void recover() {
+        // A batch cut short goes again under its own id, rebuilt from its stamped orders, so it is applied
+        // only where it had not been. The stamp says where each order was headed from its current marker.
+        Map<String, List<StockChange>> inFlight = new LinkedHashMap<>();
+        for (Order order : mongoTemplate.find(query(where("inventoryBatch").exists(true)), Order.class)) {
+            int sign = level(order.getInventoryNext()) - level(order.getInventory());
+            inFlight.computeIfAbsent(order.getInventoryBatch(), k -> new ArrayList<>())
+                .add(new StockChange(order.getId(), order.getItems(), sign));
+        }
+        inFlight.forEach(this::write);
+
+        List<StockChange> replay = new ArrayList<>();
+        for (Order order : mongoTemplate.find(query(where("inventory").is("PENDING")), Order.class)) {
+            // A released order whose decrement never reached Mongo needs no stock change, only its marker
+            replay.add(new StockChange(order.getId(), order.getItems(), RELEASED_STATUSES.contains(order.getStatus()) ? 0 : -1));
+        }
+        for (Order order : mongoTemplate.find(
+                query(where("inventory").is("RESERVED").and("status").in(RELEASED_STATUSES)), Order.class)) {
+            replay.add(new StockChange(order.getId(), order.getItems(), 1));
+        }
+        writeBack.addAll(replay);
+        while (writeBatch() == batchSize) {
+            // Replay everything before taking traffic
+        }
+
+        for (Order order : mongoTemplate.find(
+                query(where("inventory").is("RESERVED").and("status").is("CREATED")), Order.class)) {
+            reservations.put(order.getId(), order.getItems());
+        }
+        log.info("Inventory engine recovered: {} batches and {} changes replayed, {} open reservations",
+            inFlight.size(), replay.size(), reservations.size());
+    }
+
+    // Net stock taken by an order at each marker
+    private static int level(String marker) {
+        return "RESERVED".equals(marker) ? -1 : 0;
+    }
+
+    // sign -1 takes the items' quantities from stock, +1 returns them, 0 only updates the marker
+    private static class StockChange {
+        final String orderId;
+        final List<OrderItem> items;
+        final int sign;
+
+        StockChange(String orderId, List<OrderItem> items, int sign) {
+            this.orderId = orderId;
+            this.items = items;
+            this.sign = sign;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.inclassassignment.inventory;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Non-negative stock counter split into stripes so concurrent checkouts of one SKU mostly CAS different
+// cache lines. A take larger than the remaining stock fails without taking anything.
+public class StripedCounter {
+
+    // One stripe per 64-byte cache line to avoid false sharing between neighbouring stripes
+    private static final int PAD = 8;
+
+    private final AtomicLongArray cells;
+    private final int stripes;
+
+    public StripedCounter(int stripes, long initial) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicLongArray(this.stripes * PAD);
+        long share = Math.max(0, initial) / this.stripes;
+        long remainder = Math.max(0, initial) % this.stripes;
+        for (int i = 0; i < this.stripes; i++) {
+            cells.set(i * PAD, share + (i < remainder ? 1 : 0));
+        }
+    }
+
+    public long available() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    // Takes exactly quantity or nothing
+    public boolean tryAcquire(long quantity) {
+        long taken = take(quantity);
+        if (taken == quantity) {
+            return true;
+        }
+        release(taken);
+        return false;
+    }
+
+    public void release(long quantity) {
+        if (quantity > 0) {
+            cells.getAndAdd(home() * PAD, quantity);
+        }
+    }
+
+    // Moves the counter by delta; a negative delta takes as much as is left and returns what was removed
+    public long adjust(long delta) {
+        if (delta >= 0) {
+            release(delta);
+            return delta;
+        }
+        return -take(-delta);
+    }
+
+    // Takes up to quantity, home stripe first, and returns how much it got
+    private long take(long quantity) {
+        long remaining = quantity;
+        int start = home();
+        for (int n = 0; n < stripes && remaining > 0; n++) {
+            int cell = ((start + n) % stripes) * PAD;
+            long current = cells.get(cell);
+            while (current > 0) {
+                long step = Math.min(current, remaining);
+                if (cells.compareAndSet(cell, current, current - step)) {
+                    remaining -= step;
+                    break;
+                }
+                current = cells.get(cell);
+            }
+        }
+        return quantity - remaining;
+    }
+
+    private int home() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 33) % stripes;
+    }
+}
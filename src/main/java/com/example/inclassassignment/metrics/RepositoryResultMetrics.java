@@ -0,0 +1,80 @@
+package com.example.inclassassignment.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Documents returned per repository method, as spring.data.repository.results{repository, method}.
+// Latency per method is already published by Boot as spring.data.repository.invocations.
+// Streams and reactive publishers are not counted since that would mean consuming them.
+@Component
+public class RepositoryResultMetrics implements BeanPostProcessor {
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(countResults(
+                    repositoryInformation.getRepositoryInterface().getSimpleName(), repositoryInformation.getDomainType()))));
+        }
+        return bean;
+    }
+    
+    private MethodInterceptor countResults(String repository, Class<?> domainType) {
+        return invocation -> {
+            Object result = invocation.proceed();
+            long count = count(result, invocation.getMethod(), domainType);
+            if (count >= 0) {
+                summaries.computeIfAbsent(invocation.getMethod(), method -> DistributionSummary
+                    .builder("spring.data.repository.results")
+                    .description("Documents returned by a repository method")
+                    .baseUnit("documents")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .register(meterRegistry.getObject()))
+                    .record(count);
+            }
+            return result;
+        };
+    }
+    
+    // -1 when the method does not return documents (void, counts, streams, publishers)
+    private static long count(Object result, Method method, Class<?> domainType) {
+        if (result == null) {
+            return method.getReturnType() == domainType ? 0 : -1;
+        }
+        if (domainType.isInstance(result)) {
+            return 1;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Iterable<?> iterable) {
+            long n = 0;
+            for (Object ignored : iterable) {
+                n++;
+            }
+            return n;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.inclassassignment.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Latency histograms for the hot service methods, published as app.service{operation, outcome}.
+// Timers are registered once per operation; recording is a map lookup plus two nanoTime calls.
+@Component
+public class ServiceMetrics {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+    
+    public <T> T record(String operation, Supplier<T> call) {
+        Timer[] timer = timers.computeIfAbsent(operation, this::register);
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            timer[0].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            timer[1].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+    
+    private Timer[] register(String operation) {
+        return new Timer[] { timer(operation, "success"), timer(operation, "error") };
+    }
+    
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("app.service")
+            .description("Service method latency")
+            .tag("operation", operation)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.inclassassignment.model;
+
+import com.example.inclassassignment.dto.BulkItemError;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// A catalog import or export and its checkpoint; saved after every committed batch so it can be resumed
+@Document(collection = "catalog_jobs")
+@Data
+@NoArgsConstructor
+public class CatalogJob {
+    @Id
+    private String id;
+    private String type; // IMPORT, EXPORT
+    private String format; // CSV, NDJSON
+    private String file; // Relative to app.catalog.directory
+    private String status; // RUNNING, COMPLETED, STOPPED, FAILED
+    private long offset; // Bytes of the file read or written up to the checkpoint
+    private long records; // Records read or written up to the checkpoint
+    private String lastId; // _id of the last product an export wrote up to the checkpoint
+    private long succeeded;
+    private long failed;
+    private List<String> columns; // CSV header of an import, kept for resuming past it
+    private List<BulkItemError> errors = new ArrayList<>(); // First rejected records, by record number
+    private String error; // Why the job failed
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant finishedAt;
+    private long activeMillis; // Running time over all attempts
+    private double recordsPerSecond;
+    private double megabytesPerSecond;
+}
@@ -0,0 +1,47 @@
+package com.example.inclassassignment.model;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+
+import java.math.BigDecimal;
+
+// Amounts are stored and summed as whole minor units (1/100 of the currency unit) in a long, and cross
+// the API as exact decimals. Conversions reject amounts with more than two decimal places instead of rounding.
+public final class Money {
+    
+    private static final int SCALE = 2;
+    
+    private Money() {
+    }
+    
+    public static long toMinor(BigDecimal amount) {
+        try {
+            return amount.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Invalid amount: " + amount.toPlainString());
+        }
+    }
+    
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+    
+    // For minor-unit fields of entities that are returned or accepted by the API as they are
+    public static class Serializer extends ValueSerializer<Long> {
+        @Override
+        public void serialize(Long value, JsonGenerator gen, SerializationContext ctxt) {
+            gen.writeNumber(toDecimal(value));
+        }
+    }
+    
+    public static class Deserializer extends ValueDeserializer<Long> {
+        @Override
+        public Long deserialize(JsonParser p, DeserializationContext ctxt) {
+            return toMinor(p.getDecimalValue());
+        }
+    }
+}
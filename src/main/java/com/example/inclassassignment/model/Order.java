@@ -4,12 +4,20 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 import java.util.List;
 
 @Document(collection = "orders")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_created_idx", def = "{'userId': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "status_created_idx", def = "{'status': 1, 'createdAt': 1}") // Expiry scan of stale CREATED orders
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,8 +25,15 @@ public class Order {
     @Id
     private String id;
     private String userId;
-    private Double totalAmount;
-    private String status; // CREATED, PAID, FAILED, CANCELLED
+    private long totalAmount; // Minor units
+    private String status; // CREATED, PAID, FAILED, EXPIRED, CANCELLED
     private Instant createdAt;
     private List<OrderItem> items;
+    @Indexed(sparse = true)
+    private String inventory; // Only set by the inventory engine: PENDING, RESERVED, RELEASED
+    @Indexed(sparse = true)
+    private String inventoryBatch; // Engine write-back batch in flight for this order, cleared with its marker
+    private String inventoryNext; // The marker that batch moves the order to
+    @Version
+    private Long version; // Bumped by every write; status changes go through OrderStateMachine
 }
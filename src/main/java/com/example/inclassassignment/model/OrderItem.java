@@ -8,9 +8,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItem {
-    private String id;
-    private String orderId;
+    // Embedded in its order, so it needs neither its own id nor the order's
     private String productId;
-    private Integer quantity;
-    private Double price;
+    private int quantity;
+    private long price; // Unit price in minor units
 }
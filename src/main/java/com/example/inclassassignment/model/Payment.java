@@ -4,7 +4,9 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 import java.time.Instant;
 
@@ -15,8 +17,10 @@ import java.time.Instant;
 public class Payment {
     @Id
     private String id;
+    @Indexed
     private String orderId;
-    private Double amount;
+    @JsonSerialize(using = Money.Serializer.class)
+    private long amount; // Minor units
     private String status; // PENDING, SUCCESS, FAILED
     private String paymentId; // External payment ID
     private Instant createdAt;
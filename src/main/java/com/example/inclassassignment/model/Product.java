@@ -4,7 +4,10 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 @Document(collection = "products")
 @Data
@@ -13,8 +16,12 @@ import org.springframework.data.mongodb.core.mapping.Document;
 public class Product {
     @Id
     private String id;
+    @TextIndexed(weight = 3)
     private String name;
+    @TextIndexed
     private String description;
-    private Double price;
+    @JsonSerialize(using = Money.Serializer.class)
+    @JsonDeserialize(using = Money.Deserializer.class)
+    private Long price; // Minor units
     private Integer stock;
 }
@@ -0,0 +1,27 @@
+package com.example.inclassassignment.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document(collection = "webhook_inbox")
+@CompoundIndex(name = "state_received_idx", def = "{'state': 1, 'receivedAt': 1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookEvent {
+    @Id
+    private String id; // Deduplication key: provider event ID, or paymentId:status
+    private String paymentId;
+    private String status; // Payment status reported by the provider
+    private String state; // RECEIVED, APPLIED, IGNORED, REJECTED
+    private Instant receivedAt;
+    @Indexed(expireAfter = "7d")
+    private Instant processedAt; // Processed events expire after the deduplication window
+}
@@ -1,6 +1,7 @@
 package com.example.inclassassignment.repository;
 
 import com.example.inclassassignment.model.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,5 +9,5 @@ import java.util.List;
 
 @Repository
 public interface OrderRepository extends MongoRepository<Order, String> {
-    List<Order> findByUserId(String userId);
+    List<Order> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
 }
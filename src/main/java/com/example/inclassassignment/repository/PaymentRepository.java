@@ -4,7 +4,11 @@ import com.example.inclassassignment.model.Payment;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface PaymentRepository extends MongoRepository<Payment, String> {
     Payment findByOrderId(String orderId);
+    List<Payment> findByOrderIdIn(Collection<String> orderIds);
 }
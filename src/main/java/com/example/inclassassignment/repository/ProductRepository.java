@@ -1,12 +1,20 @@
 package com.example.inclassassignment.repository;
 
 import com.example.inclassassignment.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends MongoRepository<Product, String> {
-    List<Product> findByNameContainingIgnoreCase(String name);
+    List<Product> findAllByOrderByIdAsc(Limit limit);
+    List<Product> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+    // After a string id: the larger string ids, then every ObjectId, which always sorts after strings
+    @Query(value = "{ '$or': [ { '_id': { '$gt': ?0 } }, { '_id': { '$type': 'objectId' } } ] }", sort = "{ '_id': 1 }")
+    List<Product> findAfterStringId(String id, Limit limit);
+    Stream<Product> streamAllByOrderByIdAsc();
 }
@@ -0,0 +1,11 @@
+package com.example.inclassassignment.repository.reactive;
+
+import com.example.inclassassignment.model.CartItem;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveCartRepository extends ReactiveMongoRepository<CartItem, String> {
+    Flux<CartItem> findByUserId(String userId);
+}
@@ -0,0 +1,12 @@
+package com.example.inclassassignment.repository.reactive;
+
+import com.example.inclassassignment.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveOrderRepository extends ReactiveMongoRepository<Order, String> {
+    Flux<Order> findByUserIdOrderByCreatedAtDesc(String userId, Pageable pageable);
+}
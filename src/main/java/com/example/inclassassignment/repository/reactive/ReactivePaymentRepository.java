@@ -0,0 +1,15 @@
+package com.example.inclassassignment.repository.reactive;
+
+import com.example.inclassassignment.model.Payment;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+@Repository
+public interface ReactivePaymentRepository extends ReactiveMongoRepository<Payment, String> {
+    Mono<Payment> findByOrderId(String orderId);
+    Flux<Payment> findByOrderIdIn(Collection<String> orderIds);
+}
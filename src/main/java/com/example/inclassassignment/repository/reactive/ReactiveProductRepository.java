@@ -0,0 +1,17 @@
+package com.example.inclassassignment.repository.reactive;
+
+import com.example.inclassassignment.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String> {
+    Flux<Product> findAllByOrderByIdAsc(Limit limit);
+    Flux<Product> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+    // After a string id: the larger string ids, then every ObjectId, which always sorts after strings
+    @Query(value = "{ '$or': [ { '_id': { '$gt': ?0 } }, { '_id': { '$type': 'objectId' } } ] }", sort = "{ '_id': 1 }")
+    Flux<Product> findAfterStringId(String id, Limit limit);
+}
@@ -0,0 +1,34 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.dto.BulkItemError;
+import com.example.inclassassignment.dto.BulkResult;
+
+// Collects the per-item outcome of a bulk request; everything not reported as failed succeeded
+class BulkTracker {
+    
+    private final long start = System.nanoTime();
+    private final BulkResult result = new BulkResult();
+    
+    void fail(int index, String id, String error) {
+        result.getErrors().add(new BulkItemError(index, id, firstLine(error)));
+    }
+    
+    BulkResult finish(int received) {
+        long elapsedNanos = System.nanoTime() - start;
+        result.setReceived(received);
+        result.setFailed(result.getErrors().size());
+        result.setSucceeded(received - result.getFailed());
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setItemsPerSecond(elapsedNanos == 0 ? 0 : received * 1e9 / elapsedNanos);
+        return result;
+    }
+    
+    // Driver and parser messages can run over several lines
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "Unknown error";
+        }
+        int end = message.indexOf('\n');
+        return end < 0 ? message : message.substring(0, end);
+    }
+}
@@ -1,74 +1,218 @@
 package com.example.inclassassignment.service;
 
+import com.example.inclassassignment.cache.CartSnapshotCache;
+import com.example.inclassassignment.cache.ProductCache;
 import com.example.inclassassignment.dto.AddToCartRequest;
+import com.example.inclassassignment.dto.BulkAddToCartRequest;
+import com.example.inclassassignment.dto.BulkResult;
 import com.example.inclassassignment.dto.CartItemResponse;
+import com.example.inclassassignment.dto.CartLineRequest;
+import com.example.inclassassignment.dto.ProductResponse;
+import com.example.inclassassignment.metrics.ServiceMetrics;
 import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.model.Money;
 import com.example.inclassassignment.model.Product;
 import com.example.inclassassignment.repository.CartRepository;
-import com.example.inclassassignment.repository.ProductRepository;
+import com.example.inclassassignment.writebehind.CartCleanupQueue;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 @Service
 public class CartService {
     
+    private static final int DUPLICATE_KEY = 11000;
+    
     @Autowired
     private CartRepository cartRepository;
     
     @Autowired
-    private ProductRepository productRepository;
+    private ProductCache productCache;
+    
+    @Autowired
+    private CartSnapshotCache cartSnapshotCache;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private CartCleanupQueue cartCleanupQueue;
+    
+    @Value("${app.cart.bulk.max-lines:500}")
+    private int maxBulkLines;
     
     public CartItem addToCart(AddToCartRequest request) {
+        return serviceMetrics.record("CartService.addToCart", () -> upsertLine(request));
+    }
+    
+    private CartItem upsertLine(AddToCartRequest request) {
         // Check if product exists
-        Optional<Product> product = productRepository.findById(request.getProductId());
-        if (product.isEmpty()) {
+        if (productCache.get(request.getProductId()).isEmpty()) {
             throw new RuntimeException("Product not found");
         }
         
-        // Check if product already in cart
-        CartItem existingItem = cartRepository.findByUserIdAndProductId(
-            request.getUserId(), 
-            request.getProductId()
-        );
+        // An ordered line still awaiting deletion must not absorb this add
+        cartCleanupQueue.settle(request.getUserId());
         
-        if (existingItem != null) {
-            // Update quantity
-            existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
-            return cartRepository.save(existingItem);
+        // Insert the line or bump its quantity in one atomic round trip
+        Query query = query(where("userId").is(request.getUserId()).and("productId").is(request.getProductId()));
+        Update update = new Update()
+            .inc("quantity", request.getQuantity())
+            .setOnInsert("_id", new ObjectId().toHexString());
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        
+        try {
+            return mongoTemplate.findAndModify(query, update, options, CartItem.class);
+        } catch (DuplicateKeyException e) {
+            // A concurrent first add won the insert on the unique (userId, productId) index; apply ours to its line
+            return mongoTemplate.findAndModify(query, update, options, CartItem.class);
+        } finally {
+            cartSnapshotCache.invalidate(request.getUserId());
+        }
+    }
+    
+    // Adds many lines in one request: products are resolved with one $in query and all lines are
+    // upserted in one unordered bulk write. Lines for the same product are merged; rejected lines are reported.
+    public BulkResult addAllToCart(BulkAddToCartRequest request) {
+        return serviceMetrics.record("CartService.addAllToCart", () -> upsertLines(request));
+    }
+    
+    private BulkResult upsertLines(BulkAddToCartRequest request) {
+        List<CartLineRequest> lines = request.getItems();
+        if (request.getUserId() == null || lines == null) {
+            throw new RuntimeException("userId and items are required");
+        }
+        if (lines.size() > maxBulkLines) {
+            throw new RuntimeException("At most " + maxBulkLines + " lines per request");
+        }
+        
+        BulkTracker tracker = new BulkTracker();
+        Map<String, Product> products = productCache.getAll(lines.stream()
+            .filter(line -> line != null && line.getProductId() != null)
+            .map(CartLineRequest::getProductId)
+            .collect(Collectors.toSet()));
+        
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        Map<String, List<Integer>> positions = new HashMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            CartLineRequest line = lines.get(i);
+            if (line == null || line.getProductId() == null) {
+                tracker.fail(i, null, "productId is required");
+            } else if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                tracker.fail(i, line.getProductId(), "quantity must be positive");
+            } else if (!products.containsKey(line.getProductId())) {
+                tracker.fail(i, line.getProductId(), "Product not found");
+            } else {
+                quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+                positions.computeIfAbsent(line.getProductId(), id -> new ArrayList<>()).add(i);
+            }
+        }
+        if (quantities.isEmpty()) {
+            return tracker.finish(lines.size());
         }
         
-        // Create new cart item
-        CartItem cartItem = new CartItem();
-        cartItem.setId(UUID.randomUUID().toString());
-        cartItem.setUserId(request.getUserId());
-        cartItem.setProductId(request.getProductId());
-        cartItem.setQuantity(request.getQuantity());
+        // An ordered line still awaiting deletion must not absorb these adds
+        cartCleanupQueue.settle(request.getUserId());
+        try {
+            List<String> productIds = new ArrayList<>(quantities.keySet());
+            Map<String, String> rejected = writeLines(request.getUserId(), productIds, quantities);
+            
+            // Concurrent first adds won the insert on the unique (userId, productId) index; apply ours to their lines
+            List<String> raced = rejected.entrySet().stream()
+                .filter(entry -> entry.getValue() == null)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+            if (!raced.isEmpty()) {
+                raced.forEach(rejected::remove);
+                rejected.putAll(writeLines(request.getUserId(), raced, quantities));
+            }
+            
+            rejected.forEach((productId, error) -> positions.get(productId)
+                .forEach(i -> tracker.fail(i, productId, error != null ? error : "Concurrent update, retry")));
+        } finally {
+            cartSnapshotCache.invalidate(request.getUserId());
+        }
+        return tracker.finish(lines.size());
+    }
+    
+    // Returns the rejected products with their error; null marks a duplicate key that is worth retrying
+    private Map<String, String> writeLines(String userId, List<String> productIds, Map<String, Integer> quantities) {
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CartItem.class);
+        for (String productId : productIds) {
+            ops.upsert(
+                query(where("userId").is(userId).and("productId").is(productId)),
+                new Update().inc("quantity", quantities.get(productId)).setOnInsert("_id", new ObjectId().toHexString())
+            );
+        }
         
-        return cartRepository.save(cartItem);
+        Map<String, String> rejected = new HashMap<>();
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                rejected.put(productIds.get(error.getIndex()), error.getCode() == DUPLICATE_KEY ? null : error.getMessage());
+            }
+        }
+        return rejected;
     }
     
+    // Served from the cart snapshot cache; built from the database only after the cart or one of its products changed
     public List<CartItemResponse> getCartByUserId(String userId) {
-        List<CartItem> cartItems = cartRepository.findByUserId(userId);
-        return cartItems.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return cartSnapshotCache.get(userId, this::loadCart);
     }
     
-    private CartItemResponse convertToResponse(CartItem cartItem) {
-        Optional<Product> product = productRepository.findById(cartItem.getProductId());
+    private List<CartItemResponse> loadCart(String userId) {
+        List<CartItem> cartItems = getCartItems(userId);
+        if (cartItems.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // Resolve all referenced products from the cache; misses are loaded in a single $in query.
+        // Tracked first, so a product change from here on invalidates the snapshot being built.
+        Set<String> productIds = cartItems.stream()
+            .map(CartItem::getProductId)
+            .collect(Collectors.toSet());
+        cartSnapshotCache.track(userId, productIds);
+        Map<String, Product> products = productCache.getAll(productIds);
+        
+        return cartItems.stream()
+            .map(item -> convertToResponse(item, products.get(item.getProductId())))
+            .collect(Collectors.toList());
+    }
+    
+    static CartItemResponse convertToResponse(CartItem cartItem, Product p) {
         CartItemResponse response = new CartItemResponse();
         response.setId(cartItem.getId());
         response.setUserId(cartItem.getUserId());
         response.setProductId(cartItem.getProductId());
         response.setQuantity(cartItem.getQuantity());
         
-        if (product.isPresent()) {
-            Product p = product.get();
-            response.setProduct(new com.example.inclassassignment.dto.ProductResponse(
-                p.getId(), p.getName(), p.getDescription(), p.getPrice(), p.getStock()
+        if (p != null) {
+            response.setProduct(new ProductResponse(
+                p.getId(), p.getName(), p.getDescription(), p.getPrice() == null ? null : Money.toDecimal(p.getPrice()), p.getStock()
             ));
         }
         
@@ -77,9 +221,18 @@ public class CartService {
     
     public void clearCart(String userId) {
         cartRepository.deleteByUserId(userId);
+        cartSnapshotCache.invalidate(userId);
     }
     
+    // Skips lines that were ordered but not yet deleted by the write-behind cleanup
     public List<CartItem> getCartItems(String userId) {
-        return cartRepository.findByUserId(userId);
+        List<CartItem> cartItems = cartRepository.findByUserId(userId);
+        Set<String> ordered = cartCleanupQueue.pendingLineIds(userId);
+        if (ordered.isEmpty()) {
+            return cartItems;
+        }
+        return cartItems.stream()
+            .filter(item -> !ordered.contains(item.getId()))
+            .collect(Collectors.toList());
     }
 }
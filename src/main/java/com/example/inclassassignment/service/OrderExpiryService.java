@@ -0,0 +1,168 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Expires orders left CREATED longer than app.orders.expiry.after and gives their stock back with one bulk $inc.
+// Runs are sized by a token bucket and skipped while checkouts exceed pause-above-checkouts-per-second.
+@Service
+public class OrderExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderExpiryService.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private InventoryEngine inventoryEngine;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.orders.expiry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.orders.expiry.after:30m}")
+    private Duration after;
+
+    @Value("${app.orders.expiry.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.orders.expiry.max-per-second:20}")
+    private double maxPerSecond;
+
+    // 0 never pauses
+    @Value("${app.orders.expiry.pause-above-checkouts-per-second:50}")
+    private double pauseAboveCheckoutsPerSecond;
+
+    private double tokens;
+    private long lastRunNanos = System.nanoTime();
+    private long lastCheckouts = -1;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    private Counter expired;
+    private Counter releasedUnits;
+    private Counter skippedRuns;
+
+    @PostConstruct
+    public void init() {
+        expired = Counter.builder("orders.expired")
+            .description("Stale CREATED orders moved to EXPIRED")
+            .register(meterRegistry);
+        releasedUnits = Counter.builder("orders.expiry.released.units")
+            .description("Stock units given back by expired orders")
+            .register(meterRegistry);
+        skippedRuns = Counter.builder("orders.expiry.skipped.runs")
+            .description("Expiry runs skipped because checkout traffic was high")
+            .register(meterRegistry);
+        Gauge.builder("orders.expiry.lag", lagSeconds, AtomicLong::get)
+            .description("How long past its expiry the oldest stale CREATED order is")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.orders.expiry.interval:5s}")
+    public void expireStaleOrders() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRunNanos) / 1e9;
+        lastRunNanos = now;
+        tokens = Math.min(batchSize, tokens + elapsedSeconds * maxPerSecond);
+        try {
+            if (checkoutsPerSecond(elapsedSeconds) > pauseAboveCheckoutsPerSecond && pauseAboveCheckoutsPerSecond > 0) {
+                skippedRuns.increment();
+            } else if (tokens >= 1) {
+                tokens -= expireBatch((int) tokens);
+            }
+            updateLag();
+        } catch (RuntimeException e) {
+            log.error("Failed to expire stale orders", e);
+        }
+    }
+
+    // Returns the number of stale orders looked at, which is what the rate limit charges for
+    int expireBatch(int limit) {
+        Instant cutoff = Instant.now().minus(after);
+        Query stale = query(where("status").is("CREATED").and("createdAt").lt(cutoff))
+            .with(Sort.by("createdAt"))
+            .limit(limit);
+        stale.fields().include("_id");
+        List<String> orderIds = mongoTemplate.find(stale, Order.class).stream()
+            .map(Order::getId)
+            .collect(Collectors.toList());
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        // Orders whose payment already succeeded move to PAID, so they leave the scan instead of blocking it;
+        // the inventory engine keeps their reservations as sold
+        List<Order> expiredOrders = new ArrayList<>();
+        for (Order order : orderStateMachine.expire(orderIds)) {
+            if ("EXPIRED".equals(order.getStatus())) {
+                expiredOrders.add(order);
+            } else {
+                inventoryEngine.onOrderStatus(order.getId(), order.getStatus());
+            }
+        }
+        if (!expiredOrders.isEmpty()) {
+            long units = orderService.releaseStock(expiredOrders);
+            expired.increment(expiredOrders.size());
+            releasedUnits.increment(units);
+            log.info("Expired {} stale orders, released {} units", expiredOrders.size(), units);
+        }
+        return orderIds.size();
+    }
+
+    private void updateLag() {
+        Instant cutoff = Instant.now().minus(after);
+        Query oldest = query(where("status").is("CREATED").and("createdAt").lt(cutoff))
+            .with(Sort.by("createdAt"))
+            .limit(1);
+        oldest.fields().include("createdAt");
+        Order order = mongoTemplate.findOne(oldest, Order.class);
+        lagSeconds.set(order == null ? 0 : Duration.between(order.getCreatedAt(), cutoff).toSeconds());
+    }
+
+    // From the checkout latency timer published by ServiceMetrics
+    private double checkoutsPerSecond(double elapsedSeconds) {
+        long checkouts = 0;
+        for (Timer timer : meterRegistry.find("app.service").tag("operation", "OrderService.createOrder").timers()) {
+            checkouts += timer.count();
+        }
+        long previous = lastCheckouts;
+        lastCheckouts = checkouts;
+        return previous < 0 || elapsedSeconds <= 0 ? 0 : (checkouts - previous) / elapsedSeconds;
+    }
+}
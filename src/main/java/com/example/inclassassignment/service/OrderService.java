@@ -1,10 +1,15 @@
 package com.example.inclassassignment.service;
 
+import com.example.inclassassignment.cache.CartSnapshotCache;
+import com.example.inclassassignment.cache.ProductCache;
 import com.example.inclassassignment.dto.CreateOrderRequest;
 import com.example.inclassassignment.dto.OrderItemResponse;
 import com.example.inclassassignment.dto.OrderResponse;
 import com.example.inclassassignment.dto.PaymentResponse;
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.metrics.ServiceMetrics;
 import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.model.Money;
 import com.example.inclassassignment.model.Order;
 import com.example.inclassassignment.model.OrderItem;
 import com.example.inclassassignment.model.Payment;
@@ -12,14 +17,21 @@ import com.example.inclassassignment.model.Product;
 import com.example.inclassassignment.repository.CartRepository;
 import com.example.inclassassignment.repository.OrderRepository;
 import com.example.inclassassignment.repository.PaymentRepository;
-import com.example.inclassassignment.repository.ProductRepository;
+import com.example.inclassassignment.writebehind.CartCleanupQueue;
+import com.example.inclassassignment.writebehind.StockDecrementBatcher;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,73 +44,112 @@ public class OrderService {
     private CartRepository cartRepository;
     
     @Autowired
-    private ProductRepository productRepository;
+    private ProductCache productCache;
+    
+    @Autowired
+    private CartSnapshotCache cartSnapshotCache;
     
     @Autowired
     private PaymentRepository paymentRepository;
     
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private InventoryEngine inventoryEngine;
+    
+    @Autowired
+    private StockDecrementBatcher stockDecrementBatcher;
+    
+    @Autowired
+    private CartCleanupQueue cartCleanupQueue;
+    
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+    
+    @Value("${app.orders.page.max-size:100}")
+    private int maxPageSize;
+    
     public Order createOrder(CreateOrderRequest request) {
+        return serviceMetrics.record("OrderService.createOrder", () -> placeOrder(request));
+    }
+    
+    private Order placeOrder(CreateOrderRequest request) {
         String userId = request.getUserId();
         
+        // Lines ordered by a previous checkout may still be waiting to be deleted
+        cartCleanupQueue.settle(userId);
+        
         // Get cart items
         List<CartItem> cartItems = cartRepository.findByUserId(userId);
         if (cartItems.isEmpty()) {
             throw new RuntimeException("Cart is empty");
         }
         
-        // Check stock and calculate total
-        double totalAmount = 0;
-        List<OrderItem> orderItems = new java.util.ArrayList<>();
+        // Load all products in one query, bypassing the cache so stock is current; check stock and calculate total
+        Map<String, Product> products = productCache.getAllFresh(
+            cartItems.stream().map(CartItem::getProductId).collect(Collectors.toSet()));
+        
+        long totalAmount = 0;
+        List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
         
         for (CartItem cartItem : cartItems) {
-            Optional<Product> product = productRepository.findById(cartItem.getProductId());
-            if (product.isEmpty()) {
+            Product p = products.get(cartItem.getProductId());
+            if (p == null) {
                 throw new RuntimeException("Product not found: " + cartItem.getProductId());
             }
             
-            Product p = product.get();
             if (p.getStock() < cartItem.getQuantity()) {
                 throw new RuntimeException("Insufficient stock for product: " + p.getName());
             }
             
-            totalAmount += p.getPrice() * cartItem.getQuantity();
-            
-            OrderItem orderItem = new OrderItem();
-            orderItem.setId(UUID.randomUUID().toString());
-            orderItem.setProductId(cartItem.getProductId());
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(p.getPrice());
-            orderItems.add(orderItem);
+            // Primitive minor-unit arithmetic: exact, no boxing, and an overflow fails instead of wrapping
+            long unitPrice = p.getPrice();
+            totalAmount = Math.addExact(totalAmount, Math.multiplyExact(unitPrice, cartItem.getQuantity()));
+            orderItems.add(new OrderItem(cartItem.getProductId(), cartItem.getQuantity(), unitPrice));
         }
         
         // Create order
         Order order = new Order();
-        order.setId(UUID.randomUUID().toString());
+        // ObjectId: 12 bytes, time-ordered and cheap to generate; assigned up front so stock can be reserved against it
+        order.setId(new ObjectId().toHexString());
         order.setUserId(userId);
         order.setTotalAmount(totalAmount);
         order.setStatus("CREATED");
         order.setCreatedAt(Instant.now());
         order.setItems(orderItems);
         
-        // Set order ID for order items
-        for (OrderItem item : orderItems) {
-            item.setOrderId(order.getId());
+        // Atomically decrement stock for all lines; the stock read above may already be stale.
+        // With the inventory engine the lines are reserved in memory and written back in batches.
+        boolean reserved = inventoryEngine.isEnabled();
+        if (reserved) {
+            inventoryEngine.reserve(order.getId(), orderItems, products);
+            order.setInventory("PENDING");
+        } else {
+            stockDecrementBatcher.decrement(orderItems);
         }
         
-        Order savedOrder = orderRepository.save(order);
-        
-        // Update product stock
-        for (CartItem cartItem : cartItems) {
-            Optional<Product> product = productRepository.findById(cartItem.getProductId());
-            if (product.isPresent()) {
-                Product p = product.get();
-                p.setStock(p.getStock() - cartItem.getQuantity());
-                productRepository.save(p);
+        Order savedOrder;
+        try {
+            savedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            if (reserved) {
+                inventoryEngine.cancel(order.getId());
+            } else {
+                stockService.restoreStock(orderItems);
             }
+            throw e;
+        }
+        if (reserved) {
+            inventoryEngine.commit(order.getId());
         }
         
-        // Clear cart
-        cartRepository.deleteByUserId(userId);
+        // Clear the ordered lines from the cart (batched when write-behind is on)
+        cartCleanupQueue.clear(userId, cartItems);
+        cartSnapshotCache.invalidate(userId);
         
         return savedOrder;
     }
@@ -112,31 +163,56 @@ public class OrderService {
         return convertToResponse(order.get());
     }
     
-    public List<OrderResponse> getOrdersByUserId(String userId) {
-        List<Order> orders = orderRepository.findByUserId(userId);
-        return orders.stream().map(this::convertToResponse).collect(Collectors.toList());
+    // Newest orders first, one page at a time; payments for the page are loaded with a single $in query
+    public List<OrderResponse> getOrdersByUserId(String userId, int page, int size) {
+        List<Order> orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId, pageRequest(page, size));
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        Map<String, Payment> payments = new HashMap<>();
+        for (Payment payment : paymentRepository.findByOrderIdIn(
+                orders.stream().map(Order::getId).collect(Collectors.toList()))) {
+            payments.putIfAbsent(payment.getOrderId(), payment);
+        }
+        
+        return orders.stream()
+            .map(order -> convertToResponse(order, payments.get(order.getId())))
+            .collect(Collectors.toList());
+    }
+    
+    PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, maxPageSize)));
+    }
+    
+    // A newly created order has no payment yet
+    public OrderResponse toResponse(Order order) {
+        return convertToResponse(order, null);
     }
     
     private OrderResponse convertToResponse(Order order) {
+        return convertToResponse(order, paymentRepository.findByOrderId(order.getId()));
+    }
+    
+    static OrderResponse convertToResponse(Order order, Payment payment) {
         OrderResponse response = new OrderResponse();
         response.setId(order.getId());
         response.setUserId(order.getUserId());
-        response.setTotalAmount(order.getTotalAmount());
+        response.setTotalAmount(Money.toDecimal(order.getTotalAmount()));
         response.setStatus(order.getStatus());
         
         // Convert order items
         List<OrderItemResponse> itemResponses = order.getItems().stream()
-            .map(item -> new OrderItemResponse(item.getProductId(), item.getQuantity(), item.getPrice()))
+            .map(item -> new OrderItemResponse(item.getProductId(), item.getQuantity(), Money.toDecimal(item.getPrice())))
             .collect(Collectors.toList());
         response.setItems(itemResponses);
         
-        // Get payment info
-        Payment payment = paymentRepository.findByOrderId(order.getId());
+        // Attach payment info
         if (payment != null) {
             PaymentResponse paymentResponse = new PaymentResponse(
                 payment.getId(),
                 payment.getOrderId(),
-                payment.getAmount(),
+                Money.toDecimal(payment.getAmount()),
                 payment.getStatus(),
                 payment.getPaymentId()
             );
@@ -146,12 +222,70 @@ public class OrderService {
         return response;
     }
     
-    public void updateOrderStatus(String orderId, String status) {
-        Optional<Order> order = orderRepository.findById(orderId);
-        if (order.isPresent()) {
-            Order o = order.get();
-            o.setStatus(status);
-            orderRepository.save(o);
+    // One conditional write; returns false when the order had already left CREATED
+    public boolean updateOrderStatus(String orderId, String status) {
+        if (orderStateMachine.transition(orderId, status) == null) {
+            return false;
+        }
+        inventoryEngine.onOrderStatus(orderId, status);
+        return true;
+    }
+    
+    public OrderResponse cancelOrder(String orderId) {
+        return serviceMetrics.record("OrderService.cancelOrder", () -> cancel(orderId));
+    }
+    
+    // Fails the pending payment first, so a payment that succeeds meanwhile blocks the cancel
+    // instead of settling against a cancelled order, then cancels and gives the stock back.
+    // The cancel is checked against the order as read, so a paid order's payment is never touched.
+    private OrderResponse cancel(String orderId) {
+        Order existing = orderRepository.findById(orderId)
+            .orElseThrow(() -> new RuntimeException("Order not found"));
+        orderStateMachine.checkTransition(existing, "CANCELLED");
+        
+        Payment payment = paymentRepository.findByOrderId(orderId);
+        if (payment != null && !"FAILED".equals(payment.getStatus())) {
+            if (!orderStateMachine.settlePayment(payment.getId(), "FAILED")) {
+                throw new RuntimeException("Order is already paid");
+            }
+            payment.setStatus("FAILED");
+        }
+        
+        // Also misses when the order changed since it was read (its version moved)
+        Order order = orderStateMachine.transition(existing, "CANCELLED");
+        if (order == null) {
+            throw new RuntimeException("Order cannot be cancelled");
+        }
+        
+        releaseStock(List.of(order));
+        return convertToResponse(order, payment);
+    }
+    
+    // Gives back the stock of orders that just moved to CANCELLED or EXPIRED and returns the units released.
+    // Directly decremented stock goes back in one bulk $inc per product, and into the engine's counters when it
+    // is on. Stock reserved by the engine goes back through the engine, or when it is off, through its recovery.
+    long releaseStock(List<Order> orders) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        long units = 0;
+        for (Order order : orders) {
+            boolean reserved = order.getInventory() != null;
+            if (reserved) {
+                inventoryEngine.onOrderStatus(order.getId(), order.getStatus());
+                if (!inventoryEngine.isEnabled()) {
+                    continue;
+                }
+            }
+            for (OrderItem item : order.getItems()) {
+                if (!reserved) {
+                    quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+                }
+                units += item.getQuantity();
+            }
         }
+        List<OrderItem> lines = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> lines.add(new OrderItem(productId, quantity, 0)));
+        stockService.restoreStock(lines);
+        inventoryEngine.onStockRestored(lines);
+        return units;
     }
 }
@@ -0,0 +1,218 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Order lifecycle CREATED -> PAID, FAILED, CANCELLED or EXPIRED and payment lifecycle PENDING -> SUCCESS or FAILED.
+// Each transition is one conditional write on the expected status, so the first writer wins; outcomes are
+// counted as order.transitions{to, outcome}.
+@Component
+public class OrderStateMachine {
+
+    private static final Map<String, Set<String>> ORDER_TRANSITIONS = Map.of(
+        "CREATED", Set.of("PAID", "FAILED", "CANCELLED", "EXPIRED")
+    );
+    private static final Map<String, Set<String>> PAYMENT_TRANSITIONS = Map.of(
+        "PENDING", Set.of("SUCCESS", "FAILED")
+    );
+    // Target status -> statuses it can be reached from, the guard of each conditional write
+    private static final Map<String, Set<String>> ORDER_SOURCES = sources(ORDER_TRANSITIONS);
+    private static final Map<String, Set<String>> PAYMENT_SOURCES = sources(PAYMENT_TRANSITIONS);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public static boolean canTransition(String from, String to) {
+        return ORDER_TRANSITIONS.getOrDefault(from, Set.of()).contains(to);
+    }
+
+    // One findAndModify: returns the updated order, or null when it is not in a status that can move to `to`.
+    // For batch processors that selected CREATED orders, where a miss means another path moved the order first
+    public Order transition(String orderId, String to) {
+        Order updated = mongoTemplate.findAndModify(
+            query(where("_id").is(orderId).and("status").in(sourcesOf(to))),
+            update(to),
+            FindAndModifyOptions.options().returnNew(true),
+            Order.class
+        );
+        count(to, updated != null ? "applied" : "conflict");
+        return updated;
+    }
+
+    // Throws, counted as rejected, when the order's status cannot move to `to`
+    public void checkTransition(Order order, String to) {
+        sourcesOf(to); // Rejects unknown statuses
+        if (!canTransition(order.getStatus(), to)) {
+            count(to, "rejected");
+            throw new RuntimeException("Order " + order.getId() + " cannot move from " + order.getStatus() + " to " + to);
+        }
+    }
+
+    // For a caller that read the order and decided on it: also fails when anything changed it since
+    public Order transition(Order order, String to) {
+        checkTransition(order, to);
+        Order updated = mongoTemplate.findAndModify(expected(order), update(to), FindAndModifyOptions.options().returnNew(true), Order.class);
+        count(to, updated != null ? "applied" : "conflict");
+        return updated;
+    }
+
+    // Bulk form for batch processors that read the orders (id, status and version): orderId -> target status,
+    // one unordered write per target status, each order guarded as in transition(Order, to). Returns the orders
+    // that moved, with their new status; only when some write missed are the orders read back to tell which.
+    public List<Order> transitionAll(List<Order> orders, Map<String, String> targets) {
+        Map<String, List<Order>> byTarget = new HashMap<>();
+        for (Order order : orders) {
+            String to = targets.get(order.getId());
+            if (to != null) {
+                checkTransition(order, to);
+                byTarget.computeIfAbsent(to, k -> new ArrayList<>()).add(order);
+            }
+        }
+        List<Order> moved = new ArrayList<>();
+        for (Map.Entry<String, List<Order>> group : byTarget.entrySet()) {
+            String to = group.getKey();
+            BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+            for (Order order : group.getValue()) {
+                ops.updateOne(expected(order), update(to));
+            }
+            int applied = ops.execute().getModifiedCount();
+            counter(to, "applied").increment(applied);
+            counter(to, "conflict").increment(group.getValue().size() - applied);
+            if (applied > 0) {
+                moved.addAll(movedTo(to, group.getValue(), applied));
+            }
+        }
+        return moved;
+    }
+
+    // The orders now at `to` with the version the guarded write gave them
+    private List<Order> movedTo(String to, List<Order> group, int applied) {
+        Map<String, Order> current = null;
+        if (applied < group.size()) {
+            Query now = query(where("_id").in(group.stream().map(Order::getId).collect(Collectors.toList())));
+            now.fields().include("status").include("version");
+            current = mongoTemplate.find(now, Order.class).stream().collect(Collectors.toMap(Order::getId, o -> o));
+        }
+        List<Order> moved = new ArrayList<>();
+        for (Order order : group) {
+            Long version = order.getVersion() == null ? null : order.getVersion() + 1;
+            Order now = current == null ? null : current.get(order.getId());
+            if (current == null || now != null && to.equals(now.getStatus()) && Objects.equals(version, now.getVersion())) {
+                order.setStatus(to);
+                order.setVersion(version);
+                moved.add(order);
+            }
+        }
+        return moved;
+    }
+
+    // Expires unpaid CREATED orders. Their PENDING payments are failed first, so a late success can no longer
+    // settle against an expired order; an order whose payment already succeeded moves to PAID instead.
+    // One conditional write per order, so the returned orders are exactly the ones that moved.
+    public List<Order> expire(List<String> orderIds) {
+        failPendingPayments(orderIds);
+        Query succeeded = query(where("orderId").in(orderIds).and("status").is("SUCCESS"));
+        succeeded.fields().include("orderId");
+        Set<String> paid = mongoTemplate.find(succeeded, Payment.class).stream()
+            .map(Payment::getOrderId)
+            .collect(Collectors.toSet());
+        List<Order> moved = new ArrayList<>();
+        for (String orderId : orderIds) {
+            Order order = transition(orderId, paid.contains(orderId) ? "PAID" : "EXPIRED");
+            if (order != null) {
+                moved.add(order);
+            }
+        }
+        return moved;
+    }
+
+    // PENDING -> SUCCESS or FAILED; false when the payment was already settled
+    public boolean settlePayment(String paymentId, String status) {
+        return mongoTemplate.updateFirst(paymentGuard(paymentId, status), Update.update("status", status), Payment.class)
+            .getModifiedCount() > 0;
+    }
+
+    // Fails the still PENDING payments of the given orders in one write, so they can no longer succeed
+    public long failPendingPayments(Collection<String> orderIds) {
+        return mongoTemplate.updateMulti(
+            query(where("orderId").in(orderIds).and("status").in(PAYMENT_SOURCES.get("FAILED"))),
+            Update.update("status", "FAILED"),
+            Payment.class
+        ).getModifiedCount();
+    }
+
+    // Matches the payment only while it can still move to status
+    public static Query paymentGuard(String paymentId, String status) {
+        Set<String> sources = PAYMENT_SOURCES.get(status);
+        if (sources == null) {
+            throw new RuntimeException("Invalid payment status: " + status);
+        }
+        return query(where("_id").is(paymentId).and("status").in(sources));
+    }
+
+    private static Set<String> sourcesOf(String to) {
+        Set<String> sources = ORDER_SOURCES.get(to);
+        if (sources == null) {
+            throw new RuntimeException("Invalid order status: " + to);
+        }
+        return sources;
+    }
+
+    private static Map<String, Set<String>> sources(Map<String, Set<String>> transitions) {
+        Map<String, Set<String>> sources = new HashMap<>();
+        transitions.forEach((from, targets) -> targets.forEach(to -> sources.computeIfAbsent(to, k -> new HashSet<>()).add(from)));
+        return sources;
+    }
+
+    private static Query expected(Order order) {
+        Query expected = query(where("_id").is(order.getId()).and("status").is(order.getStatus()));
+        if (order.getVersion() != null) {
+            expected.addCriteria(where("version").is(order.getVersion()));
+        }
+        return expected;
+    }
+
+    private static Update update(String to) {
+        return new Update().set("status", to).inc("version", 1);
+    }
+
+    private void count(String to, String outcome) {
+        counter(to, outcome).increment();
+    }
+
+    private Counter counter(String to, String outcome) {
+        return counters.computeIfAbsent(to + ":" + outcome, key -> Counter.builder("order.transitions")
+            .description("Order status transitions by target status and outcome")
+            .tag("to", to)
+            .tag("outcome", outcome)
+            .register(meterRegistry));
+    }
+}
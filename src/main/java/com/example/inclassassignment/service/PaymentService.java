@@ -1,14 +1,15 @@
 package com.example.inclassassignment.service;
 
 import com.example.inclassassignment.dto.PaymentRequest;
+import com.example.inclassassignment.metrics.ServiceMetrics;
+import com.example.inclassassignment.model.Money;
 import com.example.inclassassignment.model.Order;
 import com.example.inclassassignment.model.Payment;
 import com.example.inclassassignment.repository.OrderRepository;
 import com.example.inclassassignment.repository.PaymentRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -24,12 +25,16 @@ public class PaymentService {
     private OrderRepository orderRepository;
     
     @Autowired
-    private OrderService orderService;
+    private PaymentSettlementService paymentSettlementService;
     
     @Autowired
-    private RestTemplate restTemplate;
+    private ServiceMetrics serviceMetrics;
     
     public Payment createPayment(PaymentRequest request) {
+        return serviceMetrics.record("PaymentService.createPayment", () -> startPayment(request));
+    }
+    
+    private Payment startPayment(PaymentRequest request) {
         Optional<Order> order = orderRepository.findById(request.getOrderId());
         if (order.isEmpty()) {
             throw new RuntimeException("Order not found");
@@ -40,41 +45,30 @@ public class PaymentService {
             throw new RuntimeException("Order status must be CREATED");
         }
         
+        if (request.getAmount() == null || Money.toMinor(request.getAmount()) != o.getTotalAmount()) {
+            throw new RuntimeException("Payment amount must equal the order total");
+        }
+        
         Payment payment = new Payment();
-        payment.setId(UUID.randomUUID().toString());
+        payment.setId(new ObjectId().toHexString());
         payment.setOrderId(request.getOrderId());
-        payment.setAmount(request.getAmount());
+        payment.setAmount(o.getTotalAmount());
         payment.setStatus("PENDING");
         payment.setPaymentId("pay_" + UUID.randomUUID().toString().substring(0, 12));
         payment.setCreatedAt(Instant.now());
         
         Payment savedPayment = paymentRepository.save(payment);
         
-        // Simulate mock payment service - call webhook after 3 seconds
-        simulateMockPayment(savedPayment);
-        
-        return savedPayment;
-    }
-    
-    @Async
-    private void simulateMockPayment(Payment payment) {
+        // Hand off to the provider; the payment settles in the background
         try {
-            // Wait 3 seconds to simulate payment processing
-            Thread.sleep(3000);
-            
-            // Update payment status to SUCCESS
-            payment.setStatus("SUCCESS");
-            paymentRepository.save(payment);
-            
-            // Update order status to PAID
-            orderService.updateOrderStatus(payment.getOrderId(), "PAID");
-            
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            payment.setStatus("FAILED");
-            paymentRepository.save(payment);
-            orderService.updateOrderStatus(payment.getOrderId(), "FAILED");
+            paymentSettlementService.scheduleSettlement(savedPayment);
+        } catch (RuntimeException e) {
+            // The provider never saw it, so the client can simply try again
+            paymentRepository.delete(savedPayment);
+            throw e;
         }
+        
+        return savedPayment;
     }
     
     public Payment getPaymentById(String paymentId) {
@@ -0,0 +1,77 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.client.PaymentProviderClient;
+import com.example.inclassassignment.model.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Hands payments to the payment provider, or when none is configured to a mock that settles PENDING
+// payments asynchronously after a configurable delay
+@Service
+public class PaymentSettlementService {
+    
+    private static final Logger log = LoggerFactory.getLogger(PaymentSettlementService.class);
+    
+    @Autowired
+    @Qualifier("paymentSettlementScheduler")
+    private TaskScheduler scheduler;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+    
+    @Autowired
+    private PaymentProviderClient paymentProviderClient;
+    
+    @Value("${app.payments.settlement.latency:3s}")
+    private Duration latency;
+    
+    @Value("${app.payments.settlement.failure-rate:0.0}")
+    private double failureRate;
+    
+    // Throws when the provider is configured but cannot take the charge right now
+    public void scheduleSettlement(Payment payment) {
+        String paymentId = payment.getId();
+        String orderId = payment.getOrderId();
+        if (paymentProviderClient.isEnabled()) {
+            // A final status in the charge response settles the payment now; a PENDING one waits for the webhook
+            paymentProviderClient.createCharge(payment).whenCompleteAsync((charge, error) -> {
+                if (error != null) {
+                    log.warn("Payment provider call failed for payment {}; it stays PENDING until a webhook arrives", paymentId, error);
+                } else if ("SUCCESS".equals(charge.getStatus()) || "FAILED".equals(charge.getStatus())) {
+                    settle(paymentId, orderId, "SUCCESS".equals(charge.getStatus()));
+                }
+            }, task -> scheduler.schedule(task, Instant.now()));
+            return;
+        }
+        scheduler.schedule(() -> settle(paymentId, orderId), Instant.now().plus(latency));
+    }
+    
+    void settle(String paymentId, String orderId) {
+        settle(paymentId, orderId, ThreadLocalRandom.current().nextDouble() >= failureRate);
+    }
+    
+    private void settle(String paymentId, String orderId, boolean success) {
+        String paymentStatus = success ? "SUCCESS" : "FAILED";
+        
+        try {
+            // Only settle payments that are still PENDING so a webhook that arrived first wins
+            if (orderStateMachine.settlePayment(paymentId, paymentStatus)) {
+                orderService.updateOrderStatus(orderId, success ? "PAID" : "FAILED");
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to settle payment {} for order {}", paymentId, orderId, e);
+        }
+    }
+}
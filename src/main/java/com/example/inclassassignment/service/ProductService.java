@@ -1,12 +1,38 @@
 package com.example.inclassassignment.service;
 
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.dto.BulkResult;
+import com.example.inclassassignment.dto.ProductPageResponse;
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.metrics.ServiceMetrics;
 import com.example.inclassassignment.model.Product;
 import com.example.inclassassignment.repository.ProductRepository;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Service
 public class ProductService {
@@ -14,32 +40,202 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
     
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private InventoryEngine inventoryEngine;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Value("${app.products.page.max-size:500}")
+    private int maxPageSize;
+    
+    @Value("${app.products.bulk.chunk-size:1000}")
+    private int chunkSize;
+    
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.put(saved);
+        return saved;
+    }
+    
+    // Upserts products as they are read, one unordered bulk write per chunk, so a large import is never
+    // held in memory. Products without an id are created; invalid or rejected items are reported by position.
+    public BulkResult upsertProducts(Iterator<Product> products) {
+        return serviceMetrics.record("ProductService.upsertProducts", () -> writeProducts(products));
+    }
+    
+    private BulkResult writeProducts(Iterator<Product> products) {
+        BulkTracker tracker = new BulkTracker();
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        List<Integer> positions = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (true) {
+            try {
+                if (!products.hasNext()) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                // The input cannot be read past this point
+                tracker.fail(index, null, "Malformed input: " + e.getMessage());
+                break;
+            }
+            Product product;
+            try {
+                product = products.next();
+            } catch (RuntimeException e) {
+                tracker.fail(index++, null, "Invalid item: " + e.getMessage());
+                continue;
+            }
+            String invalid = validate(product);
+            if (invalid != null) {
+                tracker.fail(index++, product.getId(), invalid);
+                continue;
+            }
+            chunk.add(product);
+            positions.add(index++);
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, positions, tracker);
+                chunk.clear();
+                positions.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, positions, tracker);
+        }
+        return tracker.finish(index);
+    }
+    
+    private static String validate(Product product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "name is required";
+        }
+        if (product.getPrice() == null || product.getPrice() < 0) {
+            return "price must be zero or more";
+        }
+        if (product.getStock() == null || product.getStock() < 0) {
+            return "stock must be zero or more";
+        }
+        return null;
+    }
+    
+    private void writeChunk(List<Product> chunk, List<Integer> positions, BulkTracker tracker) {
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (Product p : chunk) {
+            if (p.getId() == null) {
+                p.setId(new ObjectId().toHexString());
+            }
+            Update update = new Update()
+                .set("name", p.getName())
+                .set("description", p.getDescription())
+                .set("price", p.getPrice());
+            // Stock of products tracked by the inventory engine is applied by the engine as an $inc
+            if (!inventoryEngine.setStock(p.getId(), p.getStock())) {
+                update.set("stock", p.getStock());
+            }
+            ops.upsert(query(where("_id").is(p.getId())), update);
+        }
+        
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                tracker.fail(positions.get(error.getIndex()), chunk.get(error.getIndex()).getId(), error.getMessage());
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < chunk.size(); i++) {
+                tracker.fail(positions.get(i), chunk.get(i).getId(), e.getMessage());
+            }
+        }
+        productCache.evictAll(chunk.stream().map(Product::getId).collect(Collectors.toList()));
+    }
+    
+    // Keyset pagination on _id; the cursor is the opaque, encoded id of the last product returned.
+    // Ids in ObjectId hex form are stored as ObjectIds and any other client id as a string, and a range
+    // on _id only matches its own BSON type, so a page after a string id also takes in the ObjectIds.
+    public ProductPageResponse getProductPage(String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        
+        // Fetch one extra product to know whether another page follows
+        List<Product> products;
+        if (cursor == null || cursor.isEmpty()) {
+            products = productRepository.findAllByOrderByIdAsc(Limit.of(pageSize + 1));
+        } else {
+            String lastId = decodeCursor(cursor);
+            products = ObjectId.isValid(lastId)
+                ? productRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(pageSize + 1))
+                : productRepository.findAfterStringId(lastId, Limit.of(pageSize + 1));
+        }
+        
+        if (products.size() <= pageSize) {
+            return new ProductPageResponse(products, null);
+        }
+        List<Product> page = products.subList(0, pageSize);
+        return new ProductPageResponse(new ArrayList<>(page), encodeCursor(page.get(pageSize - 1).getId()));
+    }
+    
+    int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+    
+    // Backed by a MongoDB cursor; callers must close the stream
+    public Stream<Product> streamAllProducts() {
+        return productRepository.streamAllByOrderByIdAsc();
     }
     
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
     }
     
     public Optional<Product> getProductById(String id) {
-        return productRepository.findById(id);
+        return productCache.get(id);
     }
     
-    public List<Product> searchProducts(String query) {
-        return productRepository.findByNameContainingIgnoreCase(query);
+    // Full-text search over the products text index (name weighted above description), best matches first
+    public List<Product> searchProducts(String query, int page, int size) {
+        int pageSize = pageSize(size);
+        TextQuery textQuery = TextQuery.queryText(TextCriteria.forDefaultLanguage().matching(query))
+            .sortByScore();
+        textQuery.with(PageRequest.of(Math.max(0, page), pageSize));
+        return mongoTemplate.find(textQuery, Product.class);
     }
     
     public Product updateProduct(String id, Product product) {
-        Optional<Product> existing = productRepository.findById(id);
-        if (existing.isPresent()) {
-            Product p = existing.get();
-            if (product.getName() != null) p.setName(product.getName());
-            if (product.getDescription() != null) p.setDescription(product.getDescription());
-            if (product.getPrice() != null) p.setPrice(product.getPrice());
-            if (product.getStock() != null) p.setStock(product.getStock());
-            return productRepository.save(p);
+        // Only the given fields are written, with $set, so stock taken by concurrent checkouts is never overwritten
+        Update update = new Update();
+        if (product.getName() != null) update.set("name", product.getName());
+        if (product.getDescription() != null) update.set("description", product.getDescription());
+        if (product.getPrice() != null) update.set("price", product.getPrice());
+        boolean engineStock = product.getStock() != null && inventoryEngine.setStock(id, product.getStock());
+        if (product.getStock() != null && !engineStock) update.set("stock", product.getStock());
+        
+        Product updated = update.getUpdateObject().isEmpty()
+            ? productRepository.findById(id).orElse(null)
+            : mongoTemplate.findAndModify(query(where("_id").is(id)), update, FindAndModifyOptions.options().returnNew(true), Product.class);
+        if (updated == null) {
+            return null;
         }
-        return null;
+        if (engineStock) {
+            // The inventory engine owns this product's stock and has applied the change as an $inc;
+            // report its counter, since the stored stock may still be waiting for write-back
+            updated.setStock((int) inventoryEngine.available(id));
+            productCache.evict(id);
+            return updated;
+        }
+        productCache.put(updated);
+        return updated;
     }
 }
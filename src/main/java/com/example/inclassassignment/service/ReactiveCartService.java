@@ -0,0 +1,44 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.dto.CartItemResponse;
+import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.repository.reactive.ReactiveCartRepository;
+import com.example.inclassassignment.writebehind.CartCleanupQueue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Non-blocking counterpart of CartService.getCartByUserId producing identical responses
+@Service
+public class ReactiveCartService {
+    
+    @Autowired
+    private ReactiveCartRepository cartRepository;
+    
+    @Autowired
+    private ReactiveProductService productService;
+    
+    @Autowired
+    private CartCleanupQueue cartCleanupQueue;
+    
+    public Flux<CartItemResponse> getCartByUserId(String userId) {
+        Set<String> ordered = cartCleanupQueue.pendingLineIds(userId);
+        return cartRepository.findByUserId(userId)
+            .filter(item -> !ordered.contains(item.getId()))
+            .collectList()
+            .flatMapMany(cartItems -> {
+                if (cartItems.isEmpty()) {
+                    return Flux.empty();
+                }
+                Set<String> productIds = cartItems.stream()
+                    .map(CartItem::getProductId)
+                    .collect(Collectors.toSet());
+                return productService.getProductsById(productIds)
+                    .flatMapMany(products -> Flux.fromIterable(cartItems)
+                        .map(item -> CartService.convertToResponse(item, products.get(item.getProductId()))));
+            });
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.dto.OrderResponse;
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.Payment;
+import com.example.inclassassignment.repository.reactive.ReactiveOrderRepository;
+import com.example.inclassassignment.repository.reactive.ReactivePaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// Non-blocking counterpart of the OrderService read paths producing identical responses
+@Service
+public class ReactiveOrderService {
+    
+    @Autowired
+    private ReactiveOrderRepository orderRepository;
+    
+    @Autowired
+    private ReactivePaymentRepository paymentRepository;
+    
+    @Autowired
+    private OrderService orderService;
+    
+    public Mono<OrderResponse> getOrderById(String orderId) {
+        return orderRepository.findById(orderId)
+            .switchIfEmpty(Mono.error(new RuntimeException("Order not found")))
+            .flatMap(order -> paymentRepository.findByOrderId(order.getId())
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .map(payment -> OrderService.convertToResponse(order, payment.orElse(null))));
+    }
+    
+    public Flux<OrderResponse> getOrdersByUserId(String userId, int page, int size) {
+        return orderRepository.findByUserIdOrderByCreatedAtDesc(userId, orderService.pageRequest(page, size))
+            .collectList()
+            .flatMapMany(orders -> {
+                if (orders.isEmpty()) {
+                    return Flux.empty();
+                }
+                List<String> orderIds = orders.stream().map(Order::getId).collect(Collectors.toList());
+                // Load the payments of all orders with a single $in query; like OrderService, the first payment
+                // of an order wins
+                return paymentRepository.findByOrderIdIn(orderIds)
+                    .distinct(Payment::getOrderId)
+                    .collectMap(Payment::getOrderId)
+                    .flatMapMany(payments -> Flux.fromIterable(orders)
+                        .map(order -> OrderService.convertToResponse(order, payments.get(order.getId()))));
+            });
+    }
+}
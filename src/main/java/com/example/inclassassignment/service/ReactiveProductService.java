@@ -0,0 +1,77 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.dto.ProductPageResponse;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.repository.reactive.ReactiveProductRepository;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Non-blocking counterpart of the ProductService read paths; shares the product cache and cursor format
+@Service
+public class ReactiveProductService {
+    
+    @Autowired
+    private ReactiveProductRepository productRepository;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Autowired
+    private ProductService productService;
+    
+    public Mono<Product> getProductById(String id) {
+        Map<String, Product> cached = productCache.getAllPresent(List.of(id));
+        if (!cached.isEmpty()) {
+            return Mono.just(cached.get(id));
+        }
+        return Mono.defer(() -> {
+            long changeCount = productCache.changeCount();
+            return productRepository.findById(id).doOnNext(product -> productCache.fill(product, changeCount));
+        });
+    }
+    
+    // Resolves products from the cache and loads only the misses, with a single $in query
+    public Mono<Map<String, Product>> getProductsById(Collection<String> ids) {
+        Map<String, Product> products = new HashMap<>(productCache.getAllPresent(ids));
+        if (products.size() == ids.size()) {
+            return Mono.just(products);
+        }
+        List<String> missing = ids.stream().filter(id -> !products.containsKey(id)).toList();
+        long changeCount = productCache.changeCount();
+        return productRepository.findAllById(missing)
+            .doOnNext(product -> productCache.fill(product, changeCount))
+            .collectMap(Product::getId)
+            .map(loaded -> {
+                products.putAll(loaded);
+                return products;
+            });
+    }
+    
+    public Mono<ProductPageResponse> getProductPage(String cursor, int limit) {
+        int pageSize = productService.pageSize(limit);
+        Flux<Product> products = cursor == null || cursor.isEmpty()
+            ? productRepository.findAllByOrderByIdAsc(Limit.of(pageSize + 1))
+            : Mono.fromCallable(() -> ProductService.decodeCursor(cursor))
+                .flatMapMany(id -> ObjectId.isValid(id)
+                    ? productRepository.findByIdGreaterThanOrderByIdAsc(id, Limit.of(pageSize + 1))
+                    : productRepository.findAfterStringId(id, Limit.of(pageSize + 1)));
+        
+        return products.collectList().map(list -> {
+            if (list.size() <= pageSize) {
+                return new ProductPageResponse(list, null);
+            }
+            List<Product> page = list.subList(0, pageSize);
+            return new ProductPageResponse(page, ProductService.encodeCursor(page.get(pageSize - 1).getId()));
+        });
+    }
+}
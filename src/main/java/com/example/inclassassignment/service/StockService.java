@@ -0,0 +1,77 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.model.OrderItem;
+import com.example.inclassassignment.model.Product;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+public class StockService {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCache productCache;
+
+    // Decrements stock for all lines in a single ordered bulk write.
+    // Each line is an upsert guarded by stock >= quantity: when the guard fails the upsert
+    // tries to insert a document with the existing _id, the duplicate key error stops the
+    // batch at that line, and the lines already applied before it are rolled back.
+    // Callers must have checked that every product exists, otherwise the upsert would create it.
+    public void decrementStock(List<OrderItem> items) {
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Product.class);
+        for (OrderItem item : items) {
+            ops.upsert(
+                query(where("_id").is(item.getProductId()).and("stock").gte(item.getQuantity())),
+                new Update().inc("stock", -item.getQuantity())
+            );
+        }
+
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            BulkWriteError error = e.getErrors().get(0);
+            if (error.getIndex() > 0) {
+                restoreStock(items.subList(0, error.getIndex()));
+            }
+            if (error.getCode() == DUPLICATE_KEY) {
+                throw new RuntimeException("Insufficient stock for product: " + items.get(error.getIndex()).getProductId());
+            }
+            throw e;
+        }
+        evict(items);
+    }
+
+    // Puts stock back for the given lines in a single unordered bulk write
+    public void restoreStock(List<OrderItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (OrderItem item : items) {
+            ops.updateOne(query(where("_id").is(item.getProductId())), new Update().inc("stock", item.getQuantity()));
+        }
+        ops.execute();
+        evict(items);
+    }
+
+    // Cached copies carry the old stock level, so drop them after every stock change
+    private void evict(List<OrderItem> items) {
+        productCache.evictAll(items.stream().map(OrderItem::getProductId).collect(Collectors.toList()));
+    }
+}
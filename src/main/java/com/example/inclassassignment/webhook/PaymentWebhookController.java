@@ -1,9 +1,6 @@
 package com.example.inclassassignment.webhook;
 
 import com.example.inclassassignment.dto.PaymentWebhookRequest;
-import com.example.inclassassignment.model.Payment;
-import com.example.inclassassignment.repository.PaymentRepository;
-import com.example.inclassassignment.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -11,49 +8,39 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/webhooks")
 @CrossOrigin(origins = "*")
 public class PaymentWebhookController {
     
-    @Autowired
-    private PaymentRepository paymentRepository;
+    private static final Set<String> SUPPORTED_STATUSES = Set.of("SUCCESS", "FAILED");
     
     @Autowired
-    private OrderService orderService;
+    private WebhookInboxService webhookInboxService;
     
     @PostMapping("/payment")
     public ResponseEntity<?> handlePaymentWebhook(@RequestBody PaymentWebhookRequest request) {
         try {
-            // Find payment by payment ID
-            Optional<Payment> paymentOpt = paymentRepository.findById(request.getPaymentId());
-            
-            if (paymentOpt.isEmpty()) {
+            if (request.getPaymentId() == null || request.getStatus() == null
+                    || !SUPPORTED_STATUSES.contains(request.getStatus().toUpperCase())) {
                 Map<String, String> response = new HashMap<>();
                 response.put("status", "error");
-                response.put("message", "Payment not found");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                response.put("message", "paymentId and status (SUCCESS or FAILED) are required");
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
             }
             
-            Payment payment = paymentOpt.get();
-            
-            // Update payment status
-            payment.setStatus(request.getStatus());
-            paymentRepository.save(payment);
-            
-            // Update order status based on payment status
-            String orderStatus = "SUCCESS".equalsIgnoreCase(request.getStatus()) ? "PAID" : "FAILED";
-            orderService.updateOrderStatus(payment.getOrderId(), orderStatus);
+            // Persist to the inbox and acknowledge; the status change is applied asynchronously
+            boolean accepted = webhookInboxService.accept(request);
             
             Map<String, String> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("message", "Payment webhook processed");
-            response.put("orderId", payment.getOrderId());
+            response.put("status", accepted ? "accepted" : "duplicate");
+            response.put("message", accepted ? "Payment webhook queued" : "Payment webhook already received");
+            response.put("paymentId", request.getPaymentId());
             response.put("paymentStatus", request.getStatus());
             
-            return ResponseEntity.ok(response);
+            return ResponseEntity.status(accepted ? HttpStatus.ACCEPTED : HttpStatus.OK).body(response);
             
         } catch (Exception e) {
             Map<String, String> response = new HashMap<>();
@@ -0,0 +1,196 @@
+package com.example.inclassassignment.webhook;
+
+import com.example.inclassassignment.dto.PaymentWebhookRequest;
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.metrics.ServiceMetrics;
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.Payment;
+import com.example.inclassassignment.model.WebhookEvent;
+import com.example.inclassassignment.service.OrderStateMachine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Webhook inbox: deliveries are persisted and acknowledged immediately, then applied in batches
+@Service
+public class WebhookInboxService {
+    
+    private static final Logger log = LoggerFactory.getLogger(WebhookInboxService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private InventoryEngine inventoryEngine;
+    
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+    
+    @Value("${app.webhooks.inbox.batch-size:500}")
+    private int batchSize;
+    
+    // Returns false when the same event was already received
+    public boolean accept(PaymentWebhookRequest request) {
+        return serviceMetrics.record("WebhookInboxService.accept", () -> store(request));
+    }
+    
+    private boolean store(PaymentWebhookRequest request) {
+        String status = request.getStatus().toUpperCase();
+        String key = request.getEventId() != null ? request.getEventId() : request.getPaymentId() + ":" + status;
+        
+        WebhookEvent event = new WebhookEvent(key, request.getPaymentId(), status, "RECEIVED", Instant.now(), null);
+        try {
+            mongoTemplate.insert(event);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.webhooks.inbox.poll-interval:200ms}")
+    public void processInbox() {
+        try {
+            while (serviceMetrics.record("WebhookInboxService.processBatch", this::processBatch) == batchSize) {
+                // Keep draining while full batches are waiting
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to process webhook inbox", e);
+        }
+    }
+    
+    // Applies one batch of received events with a constant number of round trips and returns its size.
+    // Transitions are monotonic: only PENDING payments settle, and only CREATED orders become PAID or FAILED,
+    // so retries and out-of-order deliveries are no-ops.
+    int processBatch() {
+        Query pending = query(where("state").is("RECEIVED"))
+            .with(Sort.by("receivedAt"))
+            .limit(batchSize);
+        List<WebhookEvent> events = mongoTemplate.find(pending, WebhookEvent.class);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        
+        // The earliest received terminal status wins per payment
+        Map<String, String> requested = new LinkedHashMap<>();
+        for (WebhookEvent event : events) {
+            requested.putIfAbsent(event.getPaymentId(), event.getStatus());
+        }
+        
+        Map<String, Payment> payments = new HashMap<>();
+        for (Payment p : mongoTemplate.find(query(where("_id").in(requested.keySet())), Payment.class)) {
+            payments.put(p.getId(), p);
+        }
+        
+        // Settle the payments that are still PENDING
+        BulkOperations paymentOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class);
+        int paymentUpdates = 0;
+        for (Map.Entry<String, String> entry : requested.entrySet()) {
+            Payment payment = payments.get(entry.getKey());
+            if (payment != null && "PENDING".equals(payment.getStatus())) {
+                paymentOps.updateOne(
+                    OrderStateMachine.paymentGuard(entry.getKey(), entry.getValue()),
+                    Update.update("status", entry.getValue())
+                );
+                paymentUpdates++;
+            }
+        }
+        
+        if (paymentUpdates > 0) {
+            paymentOps.execute();
+        }
+        Set<String> applied = applyOrderTransitions(requested, payments, paymentUpdates > 0);
+        
+        // Record the outcome of every event in the batch
+        Map<String, List<String>> outcomes = new HashMap<>();
+        for (WebhookEvent event : events) {
+            String state;
+            if (!payments.containsKey(event.getPaymentId())) {
+                state = "REJECTED";
+            } else if (applied.contains(event.getPaymentId()) && event.getStatus().equals(requested.get(event.getPaymentId()))) {
+                state = "APPLIED";
+            } else {
+                state = "IGNORED";
+            }
+            outcomes.computeIfAbsent(state, k -> new ArrayList<>()).add(event.getId());
+        }
+        
+        Instant now = Instant.now();
+        BulkOperations eventOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, WebhookEvent.class);
+        outcomes.forEach((state, ids) -> eventOps.updateMulti(
+            query(where("_id").in(ids)),
+            new Update().set("state", state).set("processedAt", now)
+        ));
+        eventOps.execute();
+        
+        if (outcomes.containsKey("REJECTED")) {
+            log.warn("Rejected {} webhook events for unknown payments", outcomes.get("REJECTED").size());
+        }
+        return events.size();
+    }
+    
+    // Moves CREATED orders to follow their payment. Every payment already at its requested status counts, not
+    // only the ones this batch settled: an earlier attempt may have settled them and failed before moving
+    // their orders. Settled payments are re-read so that orders follow the status that actually won, even
+    // when the mock settlement raced this batch. Returns the payments whose event took effect.
+    private Set<String> applyOrderTransitions(Map<String, String> requested, Map<String, Payment> before, boolean settled) {
+        Collection<Payment> current = settled
+            ? mongoTemplate.find(query(where("_id").in(before.keySet())), Payment.class)
+            : before.values();
+        List<Payment> matching = current.stream()
+            .filter(payment -> payment.getStatus().equals(requested.get(payment.getId())))
+            .collect(Collectors.toList());
+        if (matching.isEmpty()) {
+            return Set.of();
+        }
+        
+        // Only orders still CREATED need a transition; the rest already followed their payment
+        Query open = query(where("_id").in(matching.stream().map(Payment::getOrderId).collect(Collectors.toList())).and("status").is("CREATED"));
+        open.fields().include("_id").include("status").include("version");
+        List<Order> openOrders = mongoTemplate.find(open, Order.class);
+        Set<String> openIds = openOrders.stream().map(Order::getId).collect(Collectors.toSet());
+        
+        Map<String, String> orderTargets = new HashMap<>();
+        Set<String> applied = new HashSet<>();
+        for (Payment payment : matching) {
+            if (openIds.contains(payment.getOrderId())) {
+                orderTargets.put(payment.getOrderId(), "SUCCESS".equals(payment.getStatus()) ? "PAID" : "FAILED");
+                applied.add(payment.getId());
+            } else if ("PENDING".equals(before.get(payment.getId()).getStatus())) {
+                applied.add(payment.getId());
+            }
+        }
+        if (!orderTargets.isEmpty()) {
+            // Orders another path moved first are left to that path, inventory included
+            for (Order order : orderStateMachine.transitionAll(openOrders, orderTargets)) {
+                inventoryEngine.onOrderStatus(order.getId(), order.getStatus());
+            }
+        }
+        return applied;
+    }
+}
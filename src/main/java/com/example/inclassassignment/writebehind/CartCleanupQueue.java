@@ -0,0 +1,175 @@
+package com.example.inclassassignment.writebehind;
+
+import com.example.inclassassignment.model.CartItem;
+import com.example.inclassassignment.repository.CartRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Write-behind for the cart clear that follows a checkout: the ordered lines are deleted by id,
+// coalesced across checkouts into one deleteMany per interval. Until then cart reads skip them,
+// and any write to that user's cart deletes them first so an add never lands on an ordered line.
+@Component
+public class CartCleanupQueue implements MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(CartCleanupQueue.class);
+    
+    @Autowired
+    private CartRepository cartRepository;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${app.write-behind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.write-behind.queue-capacity:10000}")
+    private int capacity;
+    
+    private final Map<String, List<String>> pending = new ConcurrentHashMap<>();
+    // Users whose lines a flush is deleting, mapped to a latch released when that flush is done
+    private final Map<String, CountDownLatch> flushing = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingLines = new AtomicInteger();
+    private DistributionSummary batchSizes;
+    
+    // Removes the ordered lines from the user's cart, now or in the next batch
+    public void clear(String userId, List<CartItem> lines) {
+        if (!enabled) {
+            cartRepository.deleteByUserId(userId);
+            return;
+        }
+        List<String> ids = lines.stream().map(CartItem::getId).collect(Collectors.toList());
+        if (pendingLines.get() + ids.size() > capacity) {
+            // Queue is full: the caller pays for its own delete
+            delete(ids);
+            return;
+        }
+        enqueue(userId, ids);
+    }
+    
+    private void enqueue(String userId, List<String> ids) {
+        pending.merge(userId, ids, (queued, added) -> {
+            List<String> merged = new ArrayList<>(queued);
+            merged.addAll(added);
+            return merged;
+        });
+        pendingLines.addAndGet(ids.size());
+    }
+    
+    // Lines of this user's cart that are ordered but not deleted yet
+    public Set<String> pendingLineIds(String userId) {
+        if (!enabled) {
+            return Collections.emptySet();
+        }
+        List<String> ids = pending.get(userId);
+        return ids == null ? Collections.emptySet() : Set.copyOf(ids);
+    }
+    
+    // Makes sure the user's ordered lines are gone before their cart is written to or checked out again
+    public void settle(String userId) {
+        if (!enabled) {
+            return;
+        }
+        List<String> ids = pending.remove(userId);
+        if (ids == null) {
+            CountDownLatch flushed = flushing.get(userId);
+            if (flushed == null) {
+                return;
+            }
+            // The batch holding this user's lines is being written; wait for it
+            try {
+                flushed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for cart cleanup");
+            }
+            // A failed flush requeues the lines: delete them now
+            ids = pending.remove(userId);
+            if (ids == null) {
+                return;
+            }
+        }
+        pendingLines.addAndGet(-ids.size());
+        delete(ids);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.write-behind.cart-flush-interval:200ms}")
+    public synchronized void flush() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+        // Mark users in flight before taking their lines so settle() can tell a flushed entry from no entry
+        List<String> users = new ArrayList<>(pending.keySet());
+        CountDownLatch done = new CountDownLatch(1);
+        users.forEach(userId -> flushing.put(userId, done));
+        Map<String, List<String>> batch = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        try {
+            for (String userId : users) {
+                List<String> lines = pending.remove(userId);
+                if (lines != null) {
+                    pendingLines.addAndGet(-lines.size());
+                    batch.put(userId, lines);
+                    ids.addAll(lines);
+                }
+            }
+            if (!ids.isEmpty()) {
+                delete(ids);
+                if (batchSizes != null) {
+                    batchSizes.record(ids.size());
+                }
+            }
+        } catch (RuntimeException e) {
+            // Requeue so the ordered lines stay hidden and are retried on the next run
+            log.error("Failed to delete {} ordered cart lines; retrying", ids.size(), e);
+            batch.forEach(this::enqueue);
+        } finally {
+            users.forEach(userId -> flushing.remove(userId, done));
+            done.countDown();
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    private void delete(List<String> ids) {
+        mongoTemplate.remove(query(where("_id").in(ids)), CartItem.class);
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.writebehind.queued", pendingLines, AtomicInteger::get)
+            .description("Writes waiting in a write-behind queue")
+            .tag("stage", "cart")
+            .register(registry);
+        batchSizes = DistributionSummary.builder("app.writebehind.batch")
+            .description("Writes coalesced into one bulk operation")
+            .tag("stage", "cart")
+            .register(registry);
+    }
+}
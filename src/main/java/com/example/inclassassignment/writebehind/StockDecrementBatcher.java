@@ -0,0 +1,264 @@
+package com.example.inclassassignment.writebehind;
+
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.model.OrderItem;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.service.StockService;
+import com.mongodb.MongoSocketOpenException;
+import com.mongodb.MongoTimeoutException;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+// Group commit for checkout stock decrements: concurrent checkouts queue their lines and one writer
+// thread applies everything that arrived within the linger window as a single unordered bulk of
+// guarded upserts (see StockService.decrementStock). Each failing line is reported by index, so only
+// the orders it belongs to are rolled back and rejected; a failure that leaves it unknown which lines
+// applied rolls back and rejects the whole batch. Checkouts still wait for their result.
+@Component
+public class StockDecrementBatcher implements MeterBinder {
+    
+    private static final Logger log = LoggerFactory.getLogger(StockDecrementBatcher.class);
+    
+    private static final int DUPLICATE_KEY = 11000;
+    
+    @Autowired
+    private StockService stockService;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ProductCache productCache;
+    
+    @Value("${app.write-behind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.write-behind.queue-capacity:10000}")
+    private int capacity;
+    
+    @Value("${app.write-behind.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.write-behind.linger:2ms}")
+    private Duration linger;
+    
+    @Value("${app.write-behind.offer-timeout:50ms}")
+    private Duration offerTimeout;
+    
+    private BlockingQueue<Decrement> queue;
+    private Thread writer;
+    private volatile boolean running;
+    private DistributionSummary batchSizes;
+    
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        writer = new Thread(this::run, "stock-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+    
+    // Same contract as StockService.decrementStock: all lines are taken or an exception says which one could not be
+    public void decrement(List<OrderItem> items) {
+        if (!enabled) {
+            stockService.decrementStock(items);
+            return;
+        }
+        Decrement decrement = new Decrement(items);
+        try {
+            if (!running || !queue.offer(decrement, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                // Backpressure: with the queue full the checkout writes its own decrement
+                stockService.decrementStock(items);
+                return;
+            }
+            decrement.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for stock update");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        }
+    }
+    
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Decrement first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Decrement> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < batchSize) {
+                    Decrement next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Stock write-behind failed", e);
+            }
+        }
+    }
+    
+    void write(List<Decrement> batch) {
+        List<OrderItem> lines = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        for (int d = 0; d < batch.size(); d++) {
+            for (OrderItem item : batch.get(d).items) {
+                ops.upsert(
+                    query(where("_id").is(item.getProductId()).and("stock").gte(item.getQuantity())),
+                    new Update().inc("stock", -item.getQuantity())
+                );
+                lines.add(item);
+                owners.add(d);
+            }
+        }
+        
+        Map<Integer, BulkWriteError> failed = new HashMap<>();
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed.put(error.getIndex(), error);
+            }
+        } catch (RuntimeException e) {
+            // Every order in the batch is rejected. Unless the bulk never reached a server, any of its lines
+            // may have applied, so all of them go back rather than leak out of stock.
+            if (!neverSent(e)) {
+                try {
+                    stockService.restoreStock(lines);
+                } catch (RuntimeException restoreError) {
+                    log.error("Could not give back {} stock lines of a failed batch", lines.size(), restoreError);
+                }
+            }
+            batch.forEach(decrement -> decrement.result.completeExceptionally(e));
+            productCache.evictAll(lines.stream().map(OrderItem::getProductId).collect(Collectors.toSet()));
+            return;
+        }
+        
+        // Orders with a failed line give back the lines that did apply
+        Map<Integer, RuntimeException> rejected = new HashMap<>();
+        for (Map.Entry<Integer, BulkWriteError> entry : failed.entrySet()) {
+            int owner = owners.get(entry.getKey());
+            BulkWriteError error = entry.getValue();
+            rejected.putIfAbsent(owner, error.getCode() == DUPLICATE_KEY
+                ? new RuntimeException("Insufficient stock for product: " + lines.get(entry.getKey()).getProductId())
+                : new RuntimeException("Stock update failed: " + error.getMessage()));
+        }
+        List<OrderItem> restore = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (rejected.containsKey(owners.get(i)) && !failed.containsKey(i)) {
+                restore.add(lines.get(i));
+            }
+        }
+        if (!restore.isEmpty()) {
+            stockService.restoreStock(restore);
+        }
+        
+        productCache.evictAll(lines.stream().map(OrderItem::getProductId).collect(Collectors.toSet()));
+        if (batchSizes != null) {
+            batchSizes.record(batch.size());
+        }
+        for (int d = 0; d < batch.size(); d++) {
+            RuntimeException error = rejected.get(d);
+            if (error == null) {
+                batch.get(d).result.complete(null);
+            } else {
+                batch.get(d).result.completeExceptionally(error);
+            }
+        }
+    }
+    
+    // No server could be selected or connected to, so nothing was written
+    private static boolean neverSent(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoTimeoutException || cause instanceof MongoSocketOpenException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Stops taking new work and waits for everything queued to be written
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        
+        // Checkouts that got in after the writer's last look at the queue write their own decrement
+        Decrement left;
+        while ((left = queue.poll()) != null) {
+            try {
+                stockService.decrementStock(left.items);
+                left.result.complete(null);
+            } catch (RuntimeException e) {
+                left.result.completeExceptionally(e);
+            }
+        }
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("app.writebehind.queued", this, batcher -> batcher.queue == null ? 0 : batcher.queue.size())
+            .description("Writes waiting in a write-behind queue")
+            .tag("stage", "stock")
+            .register(registry);
+        batchSizes = DistributionSummary.builder("app.writebehind.batch")
+            .description("Writes coalesced into one bulk operation")
+            .tag("stage", "stock")
+            .register(registry);
+    }
+    
+    static class Decrement {
+        final List<OrderItem> items;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        
+        Decrement(List<OrderItem> items) {
+            this.items = items;
+        }
+    }
+}
@@ -1,13 +1,32 @@
 package com.example.inclassassignment;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 
-@SpringBootTest
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"app.indexes.manage-on-startup=false", "app.migrations.run-on-startup=false"})
 class InClassAssignmentApplicationTests {
 
+    @Autowired
+    private ApplicationContext context;
+
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void asyncWorkRunsOnTheApplicationTaskExecutor() {
+        Object executor = context.getBean("applicationTaskExecutor");
+        assertThat(executor).isInstanceOf(ThreadPoolTaskExecutor.class);
+        assertThat(context.getBean("taskExecutor")).isSameAs(executor);
+        assertThat(ReflectionTestUtils.getField(context.getBean(RequestMappingHandlerAdapter.class), "taskExecutor"))
+            .isSameAs(executor);
+    }
+
 }
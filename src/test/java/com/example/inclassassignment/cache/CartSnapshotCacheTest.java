@@ -0,0 +1,87 @@
+package com.example.inclassassignment.cache;
+
+import com.example.inclassassignment.dto.CartItemResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartSnapshotCacheTest {
+
+    private CartSnapshotCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new CartSnapshotCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxLines", 1000L);
+        ReflectionTestUtils.setField(cache, "idleTtl", Duration.ofMinutes(1));
+        cache.init();
+    }
+
+    @Test
+    void servesRepeatViewsUntilTheCartOrOneOfItsProductsChanges() {
+        cache.get("u1", this::load);
+        cache.get("u1", this::load);
+        assertThat(loads).hasValue(1);
+
+        cache.onProductsChanged(List.of("unrelated"));
+        cache.get("u1", this::load);
+        assertThat(loads).hasValue(1);
+
+        cache.onProductsChanged(List.of("p1"));
+        cache.get("u1", this::load);
+        assertThat(loads).hasValue(2);
+
+        cache.invalidate("u1");
+        cache.get("u1", this::load);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void productChangeDuringALoadDropsTheSnapshotItBuilt() throws Exception {
+        CountDownLatch tracked = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        CompletableFuture<List<CartItemResponse>> view = CompletableFuture.supplyAsync(() -> cache.get("u1", userId -> {
+            cache.track(userId, Set.of("p1"));
+            tracked.countDown();
+            await(changed);
+            return load(userId);
+        }));
+
+        tracked.await(5, TimeUnit.SECONDS);
+        // Blocks until the load finishes, then drops its result
+        CompletableFuture<Void> change = CompletableFuture.runAsync(() -> cache.onProductsChanged(List.of("p1")));
+        Thread.sleep(100);
+        changed.countDown();
+        view.get(5, TimeUnit.SECONDS);
+        change.get(5, TimeUnit.SECONDS);
+
+        cache.get("u1", this::load);
+        assertThat(loads).hasValue(2);
+    }
+
+    private List<CartItemResponse> load(String userId) {
+        loads.incrementAndGet();
+        cache.track(userId, Set.of("p1"));
+        return List.of(new CartItemResponse("c1", userId, "p1", 1, null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.inclassassignment.cache;
+
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductCacheTest {
+
+    @Test
+    void readThroughFillsNeitherInvalidateCartsNorOutliveAnEviction() {
+        CartSnapshotCache carts = mock(CartSnapshotCache.class);
+        ProductCache cache = new ProductCache();
+        ReflectionTestUtils.setField(cache, "cartSnapshotCache", carts);
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        cache.init();
+
+        long beforeRead = cache.changeCount();
+        cache.fill(product("p1", 5), beforeRead);
+        assertThat(cache.getAllPresent(List.of("p1"))).containsKey("p1");
+        verifyNoInteractions(carts);
+
+        // A slow read of p2 that completes after p2 was evicted
+        long slowRead = cache.changeCount();
+        cache.evict("p2");
+        cache.fill(product("p2", 9), slowRead);
+        assertThat(cache.getAllPresent(List.of("p2"))).isEmpty();
+        verify(carts).onProductsChanged(List.of("p2"));
+
+        // A fill never replaces a copy put after its read began
+        long beforePut = cache.changeCount();
+        cache.put(product("p1", 4));
+        cache.fill(product("p1", 5), beforePut);
+        assertThat(cache.getAllPresent(List.of("p1")).get("p1").getStock()).isEqualTo(4);
+    }
+
+    @Test
+    void bulkLoadsSkipProductsChangedDuringTheRead() {
+        ProductRepository repository = mock(ProductRepository.class);
+        ProductCache cache = new ProductCache();
+        ReflectionTestUtils.setField(cache, "productRepository", repository);
+        ReflectionTestUtils.setField(cache, "cartSnapshotCache", mock(CartSnapshotCache.class));
+        ReflectionTestUtils.setField(cache, "maxSize", 100L);
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        cache.init();
+
+        // A checkout decrements p1 while the read is in flight
+        when(repository.findAllById(any())).thenAnswer(invocation -> {
+            cache.evictAll(List.of("p1"));
+            return List.of(product("p1", 5));
+        });
+        assertThat(cache.getAll(List.of("p1"))).containsKey("p1");
+        assertThat(cache.getAllFresh(List.of("p1"))).containsKey("p1");
+        assertThat(cache.getAllPresent(List.of("p1"))).isEmpty();
+
+        // Without a concurrent change the fresh copy replaces the cached one
+        when(repository.findAllById(any())).thenReturn(List.of(product("p1", 3)));
+        cache.getAll(List.of("p1"));
+        cache.getAllFresh(List.of("p1"));
+        assertThat(cache.getAllPresent(List.of("p1")).get("p1").getStock()).isEqualTo(3);
+    }
+
+    private static Product product(String id, int stock) {
+        Product product = new Product();
+        product.setId(id);
+        product.setStock(stock);
+        return product;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.inclassassignment.catalog;
+
+import com.example.inclassassignment.model.CatalogJob;
+import com.example.inclassassignment.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CatalogExporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumesAfterTheLastExportedId() throws Exception {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        CatalogExporter exporter = new CatalogExporter();
+        ReflectionTestUtils.setField(exporter, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(exporter, "jsonMapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(exporter, "bufferBytes", 64);
+        ReflectionTestUtils.setField(exporter, "checkpointRecords", 1L);
+
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.of(
+            new Product("a1", "Pen", null, 150L, 3),
+            new Product("b2", "Ink", null, 99L, 0)));
+        CatalogJob job = new CatalogJob();
+        job.setFormat("CSV");
+        Path file = dir.resolve("products.csv");
+
+        exporter.run(job, file, () -> false, j -> { });
+        assertThat(job.getRecords()).isEqualTo(2);
+        assertThat(job.getLastId()).isEqualTo("b2");
+
+        // Resuming a stopped export: the products after a1 come from a range on _id, not a skip
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenReturn(Stream.of(new Product("b2", "Ink", null, 99L, 0)));
+        job.setRecords(1);
+        job.setLastId("a1");
+        job.setOffset(Files.readString(file, StandardCharsets.UTF_8).indexOf("b2"));
+        exporter.run(job, file, () -> false, j -> { });
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).stream(queries.capture(), eq(Product.class));
+        Query resumed = queries.getAllValues().get(1);
+        assertThat(resumed.getSkip()).isZero();
+        assertThat(resumed.getQueryObject().toJson()).contains("\"$gt\": \"a1\"").contains("\"$type\"");
+        assertThat(Files.readString(file, StandardCharsets.UTF_8))
+            .isEqualTo("id,name,description,price,stock\na1,Pen,,1.50,3\nb2,Ink,,0.99,0\n");
+        assertThat(job.getLastId()).isEqualTo("b2");
+    }
+}
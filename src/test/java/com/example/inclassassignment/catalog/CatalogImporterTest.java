@@ -0,0 +1,88 @@
+package com.example.inclassassignment.catalog;
+
+import com.example.inclassassignment.dto.BulkItemError;
+import com.example.inclassassignment.dto.BulkResult;
+import com.example.inclassassignment.model.CatalogJob;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogImporterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void resumesFromTheCheckpointWithoutRewritingOrLosingRecords() throws Exception {
+        Path file = dir.resolve("products.csv");
+        Files.writeString(file, String.join("\r\n",
+            "name,price,stock,description",
+            "Laptop,999.99,5,\"Gaming, 16\"\" screen\"",
+            "Mouse,19.99,50,\"Two",
+            "lines\"",
+            "Cable,oops,100,",
+            "",
+            "Keyboard,49.50,20,",
+            "Monitor,199,7,"), StandardCharsets.UTF_8);
+
+        List<Product> written = new ArrayList<>();
+        ProductService productService = mock(ProductService.class);
+        when(productService.upsertProducts(any())).thenAnswer(invocation -> {
+            Iterator<Product> products = invocation.getArgument(0);
+            int received = 0;
+            while (products.hasNext()) {
+                written.add(products.next());
+                received++;
+            }
+            return new BulkResult(received, received, 0, new ArrayList<>(), 0, 0);
+        });
+        CatalogImporter importer = new CatalogImporter();
+        ReflectionTestUtils.setField(importer, "productService", productService);
+        ReflectionTestUtils.setField(importer, "jsonMapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(importer, "executor", new SimpleAsyncTaskExecutor());
+        ReflectionTestUtils.setField(importer, "batchSize", 2);
+        ReflectionTestUtils.setField(importer, "queueBatches", 1);
+        ReflectionTestUtils.setField(importer, "maxRecordBytes", 1024);
+        ReflectionTestUtils.setField(importer, "maxReportedErrors", 10);
+
+        CatalogJob job = new CatalogJob();
+        job.setFormat("CSV");
+        job.setStartedAt(Instant.parse("2026-01-01T00:00:00Z"));
+        List<Long> checkpoints = new ArrayList<>();
+        AtomicBoolean stop = new AtomicBoolean(true);
+
+        assertThat(importer.run(job, file, stop::get, j -> checkpoints.add(j.getOffset()))).isFalse();
+        assertThat(written).extracting(Product::getName).containsExactly("Laptop", "Mouse");
+        assertThat(written.get(1).getDescription()).isEqualTo("Two\r\nlines");
+        assertThat(job.getRecords()).isEqualTo(2);
+
+        stop.set(false);
+        assertThat(importer.run(job, file, stop::get, j -> checkpoints.add(j.getOffset()))).isTrue();
+        assertThat(written).extracting(Product::getName).containsExactly("Laptop", "Mouse", "Keyboard", "Monitor");
+        assertThat(written).extracting(Product::getPrice).containsExactly(99999L, 1999L, 4950L, 19900L);
+        assertThat(written.get(2).getId()).isEqualTo(CatalogImporter.recordId(job, 3));
+        assertThat(job.getRecords()).isEqualTo(5);
+        assertThat(job.getSucceeded()).isEqualTo(4);
+        assertThat(job.getFailed()).isEqualTo(1);
+        assertThat(job.getErrors()).extracting(BulkItemError::getIndex).containsExactly(2L);
+        assertThat(checkpoints).isSorted().last().isEqualTo(Files.size(file));
+    }
+}
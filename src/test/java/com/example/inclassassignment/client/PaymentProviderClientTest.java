@@ -0,0 +1,141 @@
+package com.example.inclassassignment.client;
+
+import com.example.inclassassignment.dto.ProviderChargeResponse;
+import com.example.inclassassignment.model.Payment;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs the client against a local stub of the payment provider
+class PaymentProviderClientTest {
+
+    private HttpServer provider;
+    private PaymentProviderClient client;
+    private final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+    private final AtomicInteger unavailable = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile Duration delay = Duration.ZERO;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        provider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        provider.setExecutor(Executors.newCachedThreadPool());
+        provider.createContext("/charges", this::charge);
+        provider.createContext("/slow/charges", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            charge(exchange);
+        });
+        provider.start();
+
+        client = new PaymentProviderClient();
+        ReflectionTestUtils.setField(client, "outboundHttpClient", HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build());
+        ReflectionTestUtils.setField(client, "jsonMapper", JsonMapper.builder().build());
+        ReflectionTestUtils.setField(client, "baseUrl", "http://127.0.0.1:" + provider.getAddress().getPort());
+        ReflectionTestUtils.setField(client, "readTimeout", Duration.ofMillis(500));
+        ReflectionTestUtils.setField(client, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(client, "maxAttempts", 3);
+        ReflectionTestUtils.setField(client, "backoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(client, "maxBackoff", Duration.ofMillis(50));
+        client.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        provider.stop(0);
+    }
+
+    @Test
+    void retriesUnavailableAndTimedOutAttemptsWithTheSameIdempotencyKey() {
+        unavailable.set(1);
+        delay = Duration.ofSeconds(1);
+
+        // 503, then a response slower than the read timeout, then a success
+        CompletableFuture<ProviderChargeResponse> charge = client.createCharge(payment("pay_1"));
+        assertThat(charge.join().getStatus()).isEqualTo("SUCCESS");
+        assertThat(idempotencyKeys).containsExactly("pay_1", "pay_1", "pay_1");
+    }
+
+    @Test
+    void failsOnceAttemptsAreUsedUp() {
+        unavailable.set(5);
+
+        assertThatThrownBy(() -> client.createCharge(payment("pay_2")).join())
+            .hasMessageContaining("Payment provider returned 503");
+        assertThat(idempotencyKeys).hasSize(3);
+    }
+
+    @Test
+    void rejectsCallsPastTheBulkheadWithoutCallingTheProvider() {
+        ReflectionTestUtils.setField(client, "baseUrl", "http://127.0.0.1:" + provider.getAddress().getPort() + "/slow");
+        CompletableFuture<ProviderChargeResponse> first = client.createCharge(payment("pay_3"));
+
+        assertThatThrownBy(() -> client.createCharge(payment("pay_4"))).hasMessage("Payment provider is busy");
+        release.countDown();
+        assertThat(first.join().getStatus()).isEqualTo("SUCCESS");
+        assertThat(idempotencyKeys).containsExactly("pay_3");
+        assertThat(client.createCharge(payment("pay_5")).join().getStatus()).isEqualTo("SUCCESS");
+    }
+
+    @Test
+    void timesOutSlowResponses() {
+        delay = Duration.ofSeconds(2);
+        ReflectionTestUtils.setField(client, "maxAttempts", 1);
+
+        assertThatThrownBy(() -> client.createCharge(payment("pay_6")).join()).hasCauseInstanceOf(HttpTimeoutException.class);
+    }
+
+    private void charge(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        idempotencyKeys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+        if (unavailable.getAndDecrement() > 0) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        if (!delay.isZero()) {
+            Duration current = delay;
+            delay = Duration.ZERO;
+            try {
+                Thread.sleep(current.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = "{\"id\":\"ch_1\",\"status\":\"SUCCESS\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static Payment payment(String paymentId) {
+        return new Payment("p-" + paymentId, "order-1", 1999, "PENDING", paymentId, Instant.now());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.inclassassignment.inventory;
+
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.OrderItem;
+import com.example.inclassassignment.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryEngineTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations orderOps = mock(BulkOperations.class);
+    private final BulkOperations stockOps = mock(BulkOperations.class);
+    private final InventoryEngine engine = new InventoryEngine();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(engine, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(engine, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(engine, "enabled", true);
+        ReflectionTestUtils.setField(engine, "stripes", 2);
+        ReflectionTestUtils.setField(engine, "batchSize", 100);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(orderOps);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(stockOps);
+    }
+
+    @Test
+    void aFailedBatchIsRetriedAloneUnderTheSameId() {
+        Product product = new Product("p1", "Pen", null, 100L, 10);
+        engine.reserve("o1", List.of(new OrderItem("p1", 2, 100L)), Map.of("p1", product));
+        engine.commit("o1");
+        // The stock write may or may not have applied before the connection dropped
+        when(stockOps.execute())
+            .thenThrow(new DataAccessResourceFailureException("Prematurely reached end of stream"))
+            .thenReturn(null);
+        engine.flush();
+
+        engine.reserve("o2", List.of(new OrderItem("p1", 3, 100L)), Map.of("p1", product));
+        engine.commit("o2");
+        // The first run after the failure retries the old batch, the next one takes o2
+        engine.flush();
+        engine.flush();
+
+        ArgumentCaptor<Query> guards = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(stockOps, times(3)).updateOne(guards.capture(), updates.capture());
+        // The retry is the same write with the same guard; o2 follows in a batch of its own
+        assertThat(guards.getAllValues().get(1)).isEqualTo(guards.getAllValues().get(0));
+        assertThat(updates.getAllValues().get(1)).isEqualTo(updates.getAllValues().get(0));
+        assertThat(guards.getAllValues().get(2)).isNotEqualTo(guards.getAllValues().get(0));
+        assertThat(updates.getAllValues().get(0).getUpdateObject().get("$inc").toString()).contains("stock=-2");
+        assertThat(updates.getAllValues().get(2).getUpdateObject().get("$inc").toString()).contains("stock=-3");
+        assertThat(guards.getAllValues().get(0).getQueryObject().get("inventoryBatches").toString()).contains("$ne");
+    }
+
+    @Test
+    void stockRestoredOutsideTheEngineReachesItsCounter() {
+        engine.reserve("o1", List.of(new OrderItem("p1", 2, 100L)), Map.of("p1", new Product("p1", "Pen", null, 100L, 5)));
+
+        engine.onStockRestored(List.of(new OrderItem("p1", 4, 0L)));
+
+        assertThat(engine.available("p1")).isEqualTo(7);
+        verify(mongoTemplate, times(0)).updateFirst(any(Query.class), any(Update.class), any(Class.class));
+    }
+}
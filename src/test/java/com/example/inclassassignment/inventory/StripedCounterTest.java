@@ -0,0 +1,53 @@
+package com.example.inclassassignment.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedCounterTest {
+
+    @Test
+    void acquiresAcrossStripesAndFailsWithoutTakingAnything() {
+        StripedCounter counter = new StripedCounter(4, 10);
+
+        assertThat(counter.tryAcquire(7)).isTrue();
+        assertThat(counter.available()).isEqualTo(3);
+        assertThat(counter.tryAcquire(4)).isFalse();
+        assertThat(counter.available()).isEqualTo(3);
+        assertThat(counter.adjust(-5)).isEqualTo(-3);
+        assertThat(counter.available()).isZero();
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws InterruptedException {
+        StripedCounter counter = new StripedCounter(8, 1000);
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < 16; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    int quantity = 1 + i % 3;
+                    if (counter.tryAcquire(quantity)) {
+                        sold.addAndGet(quantity);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(sold.get()).isEqualTo(1000 - counter.available());
+        assertThat(counter.available()).isGreaterThanOrEqualTo(0);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.inclassassignment.repository;
+
+import com.example.inclassassignment.config.IndexManager;
+import com.example.inclassassignment.dto.IndexReport;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.repository.reactive.ReactiveCartRepository;
+import com.example.inclassassignment.repository.reactive.ReactiveOrderRepository;
+import com.example.inclassassignment.repository.reactive.ReactivePaymentRepository;
+import com.example.inclassassignment.repository.reactive.ReactiveProductRepository;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.mongodb.MongoDBContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Starts the app against a real MongoDB, so IndexManager creates the declared indexes, then runs every
+// repository query method with the profiler on and fails on any query the server answered with a COLLSCAN
+@SpringBootTest(properties = {"app.migrations.run-on-startup=false", "app.orders.expiry.enabled=false"})
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryIndexUsageTest {
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:8.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private IndexManager indexManager;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReactiveCartRepository reactiveCartRepository;
+
+    @Autowired
+    private ReactiveOrderRepository reactiveOrderRepository;
+
+    @Autowired
+    private ReactivePaymentRepository reactivePaymentRepository;
+
+    @Autowired
+    private ReactiveProductRepository reactiveProductRepository;
+
+    @Test
+    void startupCreatesEveryDeclaredIndex() {
+        assertThat(indexManager.verifyIndexes()).allSatisfy(report ->
+            assertThat(report.getMissing()).as(report.getCollection()).isEmpty());
+        assertThat(indexManager.verifyIndexes()).extracting(IndexReport::getCollection)
+            .contains("cart_items", "orders", "payments", "products", "users");
+    }
+
+    @Test
+    void everyRepositoryQueryUsesAnIndex() {
+        MongoCollection<Document> profile = mongoTemplate.getDb().getCollection("system.profile");
+        profile.drop();
+        mongoTemplate.getDb().runCommand(new Document("profile", 2));
+        try {
+            cartRepository.findByUserId("u1");
+            cartRepository.findByUserIdAndProductId("u1", "p1");
+            cartRepository.deleteByUserIdAndProductId("u1", "p1");
+            cartRepository.deleteByUserId("u1");
+            orderRepository.findByUserIdOrderByCreatedAtDesc("u1", PageRequest.of(1, 20));
+            paymentRepository.findByOrderId("o1");
+            paymentRepository.findByOrderIdIn(List.of("o1", "o2"));
+            productRepository.findAllByOrderByIdAsc(Limit.of(20));
+            productRepository.findByIdGreaterThanOrderByIdAsc(new ObjectId().toHexString(), Limit.of(20));
+            productRepository.findAfterStringId("sku-1", Limit.of(20));
+            try (Stream<Product> products = productRepository.streamAllByOrderByIdAsc()) {
+                products.forEach(product -> { });
+            }
+            userRepository.findByEmail("a@example.com");
+            userRepository.findByUsername("a");
+            reactiveCartRepository.findByUserId("u1").blockLast();
+            reactiveOrderRepository.findByUserIdOrderByCreatedAtDesc("u1", PageRequest.of(0, 20)).blockLast();
+            reactivePaymentRepository.findByOrderId("o1").block();
+            reactivePaymentRepository.findByOrderIdIn(List.of("o1")).blockLast();
+            reactiveProductRepository.findAllByOrderByIdAsc(Limit.of(20)).blockLast();
+            reactiveProductRepository.findByIdGreaterThanOrderByIdAsc(new ObjectId().toHexString(), Limit.of(20)).blockLast();
+            reactiveProductRepository.findAfterStringId("sku-1", Limit.of(20)).blockLast();
+        } finally {
+            mongoTemplate.getDb().runCommand(new Document("profile", 0));
+        }
+
+        List<Document> plans = profile.find(new Document("planSummary", new Document("$exists", true))).into(new ArrayList<>());
+        String db = mongoTemplate.getDb().getName();
+        assertThat(plans).extracting(plan -> plan.getString("ns"))
+            .contains(db + ".cart_items", db + ".orders", db + ".payments", db + ".products", db + ".users");
+        List<String> scans = plans.stream()
+            .filter(plan -> plan.getString("planSummary").contains("COLLSCAN"))
+            .map(plan -> plan.getString("ns") + " " + plan.get("command", Document.class).toJson())
+            .toList();
+        assertThat(scans).as("queries answered with a collection scan").isEmpty();
+    }
+}
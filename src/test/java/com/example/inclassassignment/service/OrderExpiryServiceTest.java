@@ -0,0 +1,59 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.model.Order;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderExpiryServiceTest {
+
+    @Test
+    void releasesTheStockOfExpiredOrdersAndConfirmsPaidOnes() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        OrderStateMachine stateMachine = mock(OrderStateMachine.class);
+        OrderService orderService = mock(OrderService.class);
+        InventoryEngine inventoryEngine = mock(InventoryEngine.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderExpiryService expiry = new OrderExpiryService();
+        ReflectionTestUtils.setField(expiry, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(expiry, "orderStateMachine", stateMachine);
+        ReflectionTestUtils.setField(expiry, "orderService", orderService);
+        ReflectionTestUtils.setField(expiry, "inventoryEngine", inventoryEngine);
+        ReflectionTestUtils.setField(expiry, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(expiry, "after", Duration.ofMinutes(30));
+        expiry.init();
+
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(order("o1", "CREATED"), order("o2", "CREATED")));
+        // o2's payment had already succeeded, so it moved to PAID rather than EXPIRED
+        Order expired = order("o1", "EXPIRED");
+        when(stateMachine.expire(List.of("o1", "o2"))).thenReturn(List.of(expired, order("o2", "PAID")));
+        when(orderService.releaseStock(List.of(expired))).thenReturn(4L);
+
+        assertThat(expiry.expireBatch(10)).isEqualTo(2);
+
+        verify(orderService).releaseStock(List.of(expired));
+        verify(inventoryEngine).onOrderStatus("o2", "PAID");
+        assertThat(meterRegistry.counter("orders.expired").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("orders.expiry.released.units").count()).isEqualTo(4);
+    }
+
+    private static Order order(String id, String status) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(status);
+        return order;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.Payment;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OrderStateMachineTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderStateMachine stateMachine;
+
+    @BeforeEach
+    void setUp() {
+        stateMachine = new OrderStateMachine();
+        ReflectionTestUtils.setField(stateMachine, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(stateMachine, "meterRegistry", meterRegistry);
+    }
+
+    @Test
+    void aLateFailedIsAMissNotAnOverwrite() {
+        Order paid = new Order();
+        paid.setStatus("PAID");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Order.class)))
+            .thenReturn(paid, (Order) null);
+
+        assertThat(stateMachine.transition("o1", "PAID")).isSameAs(paid);
+        assertThat(stateMachine.transition("o1", "FAILED")).isNull();
+
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).findAndModify(guard.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Order.class));
+        assertThat(guard.getValue().getQueryObject().toJson()).contains("\"status\": {\"$in\": [\"CREATED\"]}");
+        assertThat(update.getValue().getUpdateObject().toJson()).contains("\"$inc\": {\"version\": 1}");
+        assertThat(meterRegistry.counter("order.transitions", "to", "PAID", "outcome", "applied").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("order.transitions", "to", "FAILED", "outcome", "conflict").count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiryFailsPendingPaymentsFirstAndPaysOrdersWhosePaymentSucceeded() {
+        Payment succeeded = new Payment();
+        succeeded.setOrderId("o1");
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Payment.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.find(any(Query.class), eq(Payment.class))).thenReturn(List.of(succeeded));
+        Order paid = new Order();
+        paid.setStatus("PAID");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Order.class)))
+            .thenReturn(paid, (Order) null);
+
+        assertThat(stateMachine.expire(List.of("o1", "o2"))).containsExactly(paid);
+
+        InOrder inOrder = inOrder(mongoTemplate);
+        inOrder.verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(Payment.class));
+        inOrder.verify(mongoTemplate).find(any(Query.class), eq(Payment.class));
+        assertThat(meterRegistry.counter("order.transitions", "to", "PAID", "outcome", "applied").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("order.transitions", "to", "EXPIRED", "outcome", "conflict").count()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkTransitionsReturnOnlyTheOrdersTheyMoved() {
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)).thenReturn(ops);
+        when(ops.execute()).thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        // o1 moved; o2 was cancelled by another request between the read and the write
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(
+            new Order("o1", null, 0, "PAID", null, null, null, null, null, 2L),
+            new Order("o2", null, 0, "CANCELLED", null, null, null, null, null, 2L)));
+
+        List<Order> moved = stateMachine.transitionAll(
+            List.of(created("o1", 1L), created("o2", 1L)), Map.of("o1", "PAID", "o2", "PAID"));
+
+        assertThat(moved).extracting(Order::getId, Order::getStatus, Order::getVersion).containsExactly(tuple("o1", "PAID", 2L));
+        ArgumentCaptor<Query> guards = ArgumentCaptor.forClass(Query.class);
+        verify(ops, times(2)).updateOne(guards.capture(), any(Update.class));
+        assertThat(guards.getValue().getQueryObject().toJson()).contains("\"status\": \"CREATED\"").contains("\"version\": 1");
+        assertThat(meterRegistry.counter("order.transitions", "to", "PAID", "outcome", "conflict").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsIllegalTransitionsWithoutWriting() {
+        Order paid = new Order();
+        paid.setId("o1");
+        paid.setStatus("PAID");
+        paid.setVersion(3L);
+
+        assertThatThrownBy(() -> stateMachine.transition(paid, "CANCELLED")).hasMessageContaining("cannot move from PAID");
+        assertThatThrownBy(() -> stateMachine.transition("o1", "CREATED")).hasMessage("Invalid order status: CREATED");
+        assertThatThrownBy(() -> OrderStateMachine.paymentGuard("p1", "PENDING")).hasMessage("Invalid payment status: PENDING");
+        verifyNoInteractions(mongoTemplate);
+        assertThat(meterRegistry.counter("order.transitions", "to", "CANCELLED", "outcome", "rejected").count()).isEqualTo(1);
+    }
+
+    private static Order created(String id, Long version) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus("CREATED");
+        order.setVersion(version);
+        return order;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.dto.BulkItemError;
+import com.example.inclassassignment.dto.BulkResult;
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.metrics.ServiceMetrics;
+import com.example.inclassassignment.model.Product;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductBulkUpsertTest {
+
+    @Test
+    void writesValidItemsInChunksAndReportsEveryRejectedOneByPosition() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations first = mock(BulkOperations.class);
+        BulkOperations second = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(first, second);
+        when(first.execute()).thenThrow(bulkFailure(1));
+
+        ServiceMetrics serviceMetrics = new ServiceMetrics();
+        ReflectionTestUtils.setField(serviceMetrics, "meterRegistry", new SimpleMeterRegistry());
+        ProductService productService = new ProductService();
+        ReflectionTestUtils.setField(productService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(productService, "productCache", mock(ProductCache.class));
+        ReflectionTestUtils.setField(productService, "inventoryEngine", mock(InventoryEngine.class));
+        ReflectionTestUtils.setField(productService, "serviceMetrics", serviceMetrics);
+        ReflectionTestUtils.setField(productService, "chunkSize", 2);
+
+        String ndjson = String.join("\n",
+            "{\"id\":\"p1\",\"name\":\"Laptop\",\"price\":999.99,\"stock\":5}",
+            "{\"id\":\"p2\",\"name\":\"Mouse\",\"price\":19.999,\"stock\":5}",
+            "{\"id\":\"p3\",\"price\":5.00,\"stock\":5}",
+            "{\"id\":\"p4\",\"name\":\"Keyboard\",\"price\":49.50,\"stock\":5}",
+            "{\"name\":\"Cable\",\"price\":4,\"stock\":100}");
+        BulkResult result;
+        try (MappingIterator<Product> products = JsonMapper.builder().build().readerFor(Product.class).readValues(ndjson)) {
+            result = productService.upsertProducts(products);
+        }
+
+        assertThat(result.getReceived()).isEqualTo(5);
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(BulkItemError::getIndex).containsExactly(1L, 2L, 3L);
+        assertThat(result.getErrors().get(2).getId()).isEqualTo("p4");
+        verify(first, times(2)).upsert(any(Query.class), any(Update.class));
+        verify(second, times(1)).upsert(any(Query.class), any(Update.class));
+    }
+
+    private static BulkOperationException bulkFailure(int index) {
+        BulkWriteError error = new BulkWriteError(121, "Document failed validation", new BsonDocument(), index);
+        MongoBulkWriteException cause = new MongoBulkWriteException(
+            BulkWriteResult.acknowledged(0, 0, 0, 1, Collections.emptyList(), Collections.emptyList()),
+            List.of(error), null, new ServerAddress(), Collections.emptySet());
+        return new BulkOperationException(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.inclassassignment.service;
+
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.model.OrderItem;
+import com.example.inclassassignment.model.Product;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@ExtendWith(MockitoExtension.class)
+class StockServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductCache productCache;
+
+    @InjectMocks
+    private StockService stockService;
+
+    @Test
+    void decrementStockRollsBackLinesBeforeTheFailedGuard() {
+        BulkOperations decrement = mock(BulkOperations.class);
+        BulkOperations restore = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Product.class)).thenReturn(decrement);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(restore);
+        when(decrement.execute()).thenThrow(bulkFailure(2, 11000));
+
+        List<OrderItem> items = List.of(line("p1", 1), line("p2", 2), line("p3", 3));
+
+        assertThatThrownBy(() -> stockService.decrementStock(items))
+            .hasMessage("Insufficient stock for product: p3");
+        verify(decrement, times(3)).upsert(any(Query.class), any(Update.class));
+        verify(restore, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(restore).updateOne(eq(query(where("_id").is("p2"))),
+            eq(new Update().inc("stock", 2)));
+        verify(restore).execute();
+    }
+
+    private static OrderItem line(String productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static BulkOperationException bulkFailure(int index, int code) {
+        BulkWriteError error = new BulkWriteError(code, "E11000 duplicate key error", new BsonDocument(), index);
+        MongoBulkWriteException cause = new MongoBulkWriteException(
+            BulkWriteResult.acknowledged(0, index, 0, index, Collections.emptyList(), Collections.emptyList()),
+            List.of(error), null, new ServerAddress(), Collections.emptySet());
+        return new BulkOperationException(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.inclassassignment.webhook;
+
+import com.example.inclassassignment.inventory.InventoryEngine;
+import com.example.inclassassignment.model.Order;
+import com.example.inclassassignment.model.Payment;
+import com.example.inclassassignment.model.WebhookEvent;
+import com.example.inclassassignment.service.OrderStateMachine;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class WebhookInboxServiceTest {
+
+    @Test
+    void movesTheOrderOfAPaymentAnEarlierAttemptAlreadySettled() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        OrderStateMachine stateMachine = mock(OrderStateMachine.class);
+        WebhookInboxService inbox = new WebhookInboxService();
+        ReflectionTestUtils.setField(inbox, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(inbox, "orderStateMachine", stateMachine);
+        InventoryEngine inventoryEngine = mock(InventoryEngine.class);
+        ReflectionTestUtils.setField(inbox, "inventoryEngine", inventoryEngine);
+        ReflectionTestUtils.setField(inbox, "batchSize", 10);
+
+        // The payment was settled, then the batch failed before moving the order or recording the event
+        when(mongoTemplate.find(any(Query.class), eq(WebhookEvent.class)))
+            .thenReturn(List.of(new WebhookEvent("e1", "p1", "SUCCESS", "RECEIVED", Instant.now(), null)));
+        when(mongoTemplate.find(any(Query.class), eq(Payment.class)))
+            .thenReturn(List.of(new Payment("p1", "o1", 1999, "SUCCESS", "pay_1", Instant.now())));
+        Order open = new Order();
+        open.setId("o1");
+        open.setStatus("CREATED");
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of(open));
+        // Another path moved the order between the read and the write
+        when(stateMachine.transitionAll(List.of(open), Map.of("o1", "PAID"))).thenReturn(List.of());
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(WebhookEvent.class))).thenReturn(mock(BulkOperations.class));
+
+        assertThat(inbox.processBatch()).isEqualTo(1);
+
+        verify(stateMachine).transitionAll(List.of(open), Map.of("o1", "PAID"));
+        verifyNoInteractions(inventoryEngine);
+    }
+}
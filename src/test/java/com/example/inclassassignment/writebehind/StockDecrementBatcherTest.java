@@ -0,0 +1,97 @@
+package com.example.inclassassignment.writebehind;
+
+import com.example.inclassassignment.cache.ProductCache;
+import com.example.inclassassignment.model.OrderItem;
+import com.example.inclassassignment.model.Product;
+import com.example.inclassassignment.service.StockService;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoSocketReadException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockDecrementBatcherTest {
+
+    @Mock
+    private StockService stockService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ProductCache productCache;
+
+    @InjectMocks
+    private StockDecrementBatcher batcher;
+
+    @Test
+    void onlyTheOrderWithAFailedLineIsRolledBackAndRejected() {
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(ops);
+        // Lines 0 and 1 belong to the first order, 2 and 3 to the second; line 3 fails its stock guard
+        when(ops.execute()).thenThrow(bulkFailure(3, 11000));
+
+        StockDecrementBatcher.Decrement first = new StockDecrementBatcher.Decrement(List.of(line("p1", 1), line("p2", 1)));
+        StockDecrementBatcher.Decrement second = new StockDecrementBatcher.Decrement(List.of(line("p3", 2), line("p4", 5)));
+
+        batcher.write(List.of(first, second));
+
+        assertThat(first.result).isCompleted().isNotCompletedExceptionally();
+        assertThatThrownBy(second.result::join).hasCauseInstanceOf(RuntimeException.class)
+            .hasRootCauseMessage("Insufficient stock for product: p4");
+        verify(stockService).restoreStock(List.of(second.items.get(0)));
+    }
+
+    @Test
+    void aBatchWithAnUnknownOutcomeIsGivenBackAndRejected() {
+        BulkOperations ops = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class)).thenReturn(ops);
+        // The connection dropped after the bulk was sent
+        when(ops.execute()).thenThrow(new DataAccessResourceFailureException("Prematurely reached end of stream",
+            new MongoSocketReadException("Prematurely reached end of stream", new ServerAddress())));
+
+        StockDecrementBatcher.Decrement first = new StockDecrementBatcher.Decrement(List.of(line("p1", 1)));
+        StockDecrementBatcher.Decrement second = new StockDecrementBatcher.Decrement(List.of(line("p2", 3)));
+
+        batcher.write(List.of(first, second));
+
+        assertThat(first.result).isCompletedExceptionally();
+        assertThat(second.result).isCompletedExceptionally();
+        verify(stockService).restoreStock(List.of(first.items.get(0), second.items.get(0)));
+    }
+
+    private static OrderItem line(String productId, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static BulkOperationException bulkFailure(int index, int code) {
+        BulkWriteError error = new BulkWriteError(code, "E11000 duplicate key error", new BsonDocument(), index);
+        MongoBulkWriteException cause = new MongoBulkWriteException(
+            BulkWriteResult.acknowledged(0, index, 0, index, Collections.emptyList(), Collections.emptyList()),
+            List.of(error), null, new ServerAddress(), Collections.emptySet());
+        return new BulkOperationException(cause.getMessage(), cause);
+    }
+}